@@ -0,0 +1,179 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe cache with a fixed capacity.
+ * <p>
+ * Entries are kept in access order, and when the capacity is exceeded the least recently used one is evicted. This is
+ * used for the data shared between the request-scoped tool instances, which should not grow without limits on large
+ * sites.
+ * <p>
+ * Consecutive lookups usually ask for the same key, such as the configuration of the site being rendered, so the last
+ * entry returned is kept apart, and is read without locking. This way pages rendered in parallel don't contend for the
+ * lock. These lookups don't update the access order, so the last entry is marked as used before storing a new entry,
+ * and it is never the one evicted.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ * @param <K>
+ *            type of the keys
+ * @param <V>
+ *            type of the values
+ */
+final class BoundedCache<K, V> {
+
+    /**
+     * Cached entries, in access order.
+     */
+    private final Map<K, V>     entries;
+
+    /**
+     * Last entry returned.
+     * <p>
+     * It is replaced as a whole, so the key and value are always read together.
+     */
+    private volatile Last<K, V> last;
+
+    /**
+     * Constructs a cache with the specified capacity.
+     *
+     * @param capacity
+     *            maximum number of entries kept
+     */
+    BoundedCache(final int capacity) {
+        super();
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity should be positive, received " + capacity);
+        }
+
+        entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected final boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+
+        };
+    }
+
+    /**
+     * Returns the value for the key, computing and storing it if missing.
+     * <p>
+     * The value is computed outside the lock, so concurrent callers may compute it more than once. Only the first value
+     * stored is kept and returned to all of them.
+     *
+     * @param key
+     *            key for the value
+     * @param loader
+     *            function to compute the value when missing
+     * @return the value for the key
+     */
+    final V get(final K key, final Function<? super K, ? extends V> loader) {
+        final Last<K, V> recent;
+        final Last<K, V> current;
+        V                value;
+        V                computed;
+
+        Objects.requireNonNull(key, "Received a null pointer as key");
+        Objects.requireNonNull(loader, "Received a null pointer as loader");
+
+        recent = last;
+        if ((recent != null) && recent.key.equals(key)) {
+            // Fast path, without locking
+            value = recent.value;
+        } else {
+            synchronized (this) {
+                value = entries.get(key);
+            }
+
+            if (value == null) {
+                computed = Objects.requireNonNull(loader.apply(key), "The loader returned a null pointer");
+                synchronized (this) {
+                    // Fast path hits are not recorded, so the last entry is marked as used before evicting
+                    current = last;
+                    if (current != null) {
+                        entries.get(current.key);
+                    }
+
+                    value = entries.putIfAbsent(key, computed);
+                    if (value == null) {
+                        value = computed;
+                    }
+                }
+            }
+
+            last = new Last<>(key, value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Last entry returned by the cache.
+     *
+     * @param <K>
+     *            type of the key
+     * @param <V>
+     *            type of the value
+     */
+    private static final class Last<K, V> {
+
+        /**
+         * Entry key.
+         */
+        private final K key;
+
+        /**
+         * Entry value.
+         */
+        private final V value;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param entryKey
+         *            entry key
+         * @param entryValue
+         *            entry value
+         */
+        private Last(final K entryKey, final V entryValue) {
+            super();
+
+            key = entryKey;
+            value = entryValue;
+        }
+
+    }
+
+}
@@ -0,0 +1,413 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Default skin configuration, shipped along the skin.
+ * <p>
+ * The defaults are a {@code <skinConfig>} document, which is merged with the user configuration the same way Maven
+ * merges plugin configurations. The user values always win, and any node missing in them is taken from the defaults.
+ * The {@code combine.self="override"} and {@code combine.children="append"} attributes can be used to replace or
+ * extend a default node instead of merging it. These attributes are removed after merging, so they are not part of the
+ * configuration.
+ * <p>
+ * The merge is done for each top-level node on its own, so a node which has not changed from a previous configuration
+ * doesn't need to be merged again. The result is the same as merging the full configuration.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ConfigDefaults {
+
+    /**
+     * Empty defaults, which leave the configuration untouched.
+     */
+    static final ConfigDefaults NONE = new ConfigDefaults(new Xpp3Dom(""));
+
+    /**
+     * Root node for the defaults.
+     */
+    private final Xpp3Dom       root;
+
+    /**
+     * Constructs the defaults from their root node.
+     *
+     * @param defaultsRoot
+     *            root node for the defaults
+     */
+    private ConfigDefaults(final Xpp3Dom defaultsRoot) {
+        super();
+
+        root = defaultsRoot;
+    }
+
+    /**
+     * Loads the defaults from a classpath resource.
+     *
+     * @param resource
+     *            path to the defaults resource
+     * @param required
+     *            flag telling if the resource should exist
+     * @return the defaults, or {@link #NONE} if the resource does not exist and is not required
+     */
+    static final ConfigDefaults load(final String resource, final boolean required) {
+        final ConfigDefaults defaults;
+        final Xpp3Dom        node;
+
+        Objects.requireNonNull(resource, "Received a null pointer as resource");
+
+        node = ConfigResources.load(resource);
+        if (node != null) {
+            defaults = new ConfigDefaults(node);
+        } else if (required) {
+            throw new IllegalArgumentException("Skin configuration defaults " + resource + " not found");
+        } else {
+            defaults = NONE;
+        }
+
+        return defaults;
+    }
+
+    /**
+     * Indicates if the node or any of its descendants has merge attributes.
+     *
+     * @param node
+     *            node to check
+     * @return {@code true} if there is any merge attribute, {@code false} otherwise
+     */
+    private static final boolean hasDirectives(final Xpp3Dom node) {
+        boolean found;
+
+        found = false;
+        for (final String attribute : node.getAttributeNames()) {
+            found = found || isDirective(attribute);
+        }
+        for (final Xpp3Dom child : node.getChildren()) {
+            found = found || hasDirectives(child);
+        }
+
+        return found;
+    }
+
+    /**
+     * Indicates if the attribute is a merge attribute.
+     *
+     * @param attribute
+     *            attribute name
+     * @return {@code true} if the attribute is a merge attribute, {@code false} otherwise
+     */
+    private static final boolean isDirective(final String attribute) {
+        return Xpp3Dom.SELF_COMBINATION_MODE_ATTRIBUTE.equals(attribute)
+                || Xpp3Dom.CHILDREN_COMBINATION_MODE_ATTRIBUTE.equals(attribute);
+    }
+
+    /**
+     * Indicates if the node replaces the defaults, instead of being merged with them.
+     *
+     * @param node
+     *            node to check
+     * @return {@code true} if the node replaces the defaults, {@code false} otherwise
+     */
+    private static final boolean isOverride(final Xpp3Dom node) {
+        return Xpp3Dom.SELF_COMBINATION_OVERRIDE.equals(node.getAttribute(Xpp3Dom.SELF_COMBINATION_MODE_ATTRIBUTE));
+    }
+
+    /**
+     * Returns a copy of the node without merge attributes.
+     *
+     * @param node
+     *            node to copy
+     * @return the copy without merge attributes
+     */
+    private static final Xpp3Dom removeDirectives(final Xpp3Dom node) {
+        final Xpp3Dom copy;
+
+        copy = new Xpp3Dom(node.getName());
+        for (final String attribute : node.getAttributeNames()) {
+            if (!isDirective(attribute)) {
+                copy.setAttribute(attribute, node.getAttribute(attribute));
+            }
+        }
+        copy.setValue(node.getValue());
+        for (final Xpp3Dom child : node.getChildren()) {
+            copy.addChild(removeDirectives(child));
+        }
+
+        return copy;
+    }
+
+    /**
+     * Returns the root node of the configuration merged with the defaults, without any children.
+     * <p>
+     * The received node is not modified. The merge attributes are removed, unless there are no defaults.
+     *
+     * @param config
+     *            configuration to merge
+     * @return the merged root node, without children
+     */
+    final Xpp3Dom getHeader(final Xpp3Dom config) {
+        final Xpp3Dom header;
+        final Xpp3Dom result;
+
+        Objects.requireNonNull(config, "Received a null pointer as config");
+
+        header = new Xpp3Dom(config.getName());
+        for (final String attribute : config.getAttributeNames()) {
+            header.setAttribute(attribute, config.getAttribute(attribute));
+        }
+        header.setValue(config.getValue());
+
+        if (!isEmpty() && !isOverride(config)) {
+            // Empty user values are replaced, as Xpp3Dom.mergeXpp3Dom does
+            for (final String attribute : root.getAttributeNames()) {
+                if (Xpp3Dom.isEmpty(header.getAttribute(attribute))) {
+                    header.setAttribute(attribute, root.getAttribute(attribute));
+                }
+            }
+            if (Xpp3Dom.isEmpty(header.getValue()) && !Xpp3Dom.isEmpty(root.getValue())) {
+                header.setValue(root.getValue());
+            }
+        }
+
+        if (isEmpty()) {
+            result = header;
+        } else {
+            result = removeDirectives(header);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the sources for each top-level node of the merged configuration, in the merged order.
+     * <p>
+     * Each user node is paired with the default node of the same name in the same position, as
+     * {@code Xpp3Dom.mergeXpp3Dom} does. Default nodes whose name is missing in the configuration are added at the end,
+     * while those repeated more times than in the configuration are ignored.
+     * <p>
+     * The merge attributes are removed from the merged nodes, unless there are no defaults.
+     *
+     * @param config
+     *            configuration to merge
+     * @return the sources for the top-level nodes
+     */
+    final List<Source> getSources(final Xpp3Dom config) {
+        final List<Source>          sources;  // Sources in the merged order
+        final Map<Xpp3Dom, Xpp3Dom> paired;   // Default nodes for each user node
+        final Map<String, Integer>  used;     // Default nodes already paired for each name
+        final List<Xpp3Dom>         appended; // Default nodes missing in the configuration
+        final boolean               strip;    // Flag telling if the merge attributes are removed
+        Xpp3Dom[]                   children;
+        int                         index;
+
+        Objects.requireNonNull(config, "Received a null pointer as config");
+
+        strip = !isEmpty();
+        sources = new ArrayList<>();
+        if (isEmpty() || isOverride(config)) {
+            for (final Xpp3Dom child : config.getChildren()) {
+                sources.add(new Source(child, null, strip));
+            }
+        } else if (isAppend(config)) {
+            // The defaults go first, and are not merged
+            for (final Xpp3Dom child : root.getChildren()) {
+                sources.add(new Source(null, child, strip));
+            }
+            for (final Xpp3Dom child : config.getChildren()) {
+                sources.add(new Source(child, null, strip));
+            }
+        } else {
+            paired = new IdentityHashMap<>();
+            used = new HashMap<>();
+            appended = new ArrayList<>();
+            for (final Xpp3Dom child : root.getChildren()) {
+                children = config.getChildren(child.getName());
+                if (children.length == 0) {
+                    appended.add(child);
+                } else {
+                    index = used.merge(child.getName(), 1, Integer::sum) - 1;
+                    if (index < children.length) {
+                        paired.put(children[index], child);
+                    }
+                }
+            }
+
+            for (final Xpp3Dom child : config.getChildren()) {
+                sources.add(new Source(child, paired.get(child), strip));
+            }
+            for (final Xpp3Dom child : appended) {
+                sources.add(new Source(null, child, strip));
+            }
+        }
+
+        return sources;
+    }
+
+    /**
+     * Indicates if there are no defaults.
+     *
+     * @return {@code true} if there are no defaults, {@code false} otherwise
+     */
+    final boolean isEmpty() {
+        return (root.getChildCount() == 0) && (root.getAttributeNames().length == 0);
+    }
+
+    /**
+     * Indicates if the defaults are added before the configuration children, instead of being merged with them.
+     * <p>
+     * The attribute is taken from the defaults root when the configuration doesn't set it, as attributes are merged
+     * before the children.
+     *
+     * @param config
+     *            configuration to merge
+     * @return {@code true} if the defaults are added before the children, {@code false} otherwise
+     */
+    private final boolean isAppend(final Xpp3Dom config) {
+        String mode;
+
+        mode = config.getAttribute(Xpp3Dom.CHILDREN_COMBINATION_MODE_ATTRIBUTE);
+        if (Xpp3Dom.isEmpty(mode)) {
+            mode = root.getAttribute(Xpp3Dom.CHILDREN_COMBINATION_MODE_ATTRIBUTE);
+        }
+
+        return Xpp3Dom.CHILDREN_COMBINATION_APPEND.equals(mode);
+    }
+
+    /**
+     * Sources for a top-level node of the merged configuration.
+     * <p>
+     * This is the user node, the default node, or both, when they have to be merged.
+     */
+    static final class Source {
+
+        /**
+         * Default node, may be {@code null}.
+         */
+        private final Xpp3Dom defaults;
+
+        /**
+         * Flag telling if the merge attributes are removed from the merged node.
+         */
+        private final boolean strip;
+
+        /**
+         * User node, may be {@code null}.
+         */
+        private final Xpp3Dom user;
+
+        /**
+         * Constructs the sources for a node.
+         *
+         * @param userNode
+         *            user node, may be {@code null}
+         * @param defaultsNode
+         *            default node, may be {@code null}
+         * @param removeDirectives
+         *            flag telling if the merge attributes are removed from the merged node
+         */
+        private Source(final Xpp3Dom userNode, final Xpp3Dom defaultsNode, final boolean removeDirectives) {
+            super();
+
+            user = userNode;
+            defaults = defaultsNode;
+            strip = removeDirectives;
+        }
+
+        /**
+         * Returns the default node.
+         *
+         * @return the default node, or {@code null} if there is none
+         */
+        final Xpp3Dom getDefaults() {
+            return defaults;
+        }
+
+        /**
+         * Returns the node name.
+         *
+         * @return the node name
+         */
+        final String getName() {
+            final String name;
+
+            if (user == null) {
+                name = defaults.getName();
+            } else {
+                name = user.getName();
+            }
+
+            return name;
+        }
+
+        /**
+         * Returns the user node.
+         *
+         * @return the user node, or {@code null} if there is none
+         */
+        final Xpp3Dom getUser() {
+            return user;
+        }
+
+        /**
+         * Returns the merged node.
+         * <p>
+         * The sources are not modified. Instead a copy is returned, unless there is only a user node without merge
+         * attributes to remove.
+         *
+         * @return the merged node
+         */
+        final Xpp3Dom merge() {
+            final Xpp3Dom merged;
+            final Xpp3Dom result;
+
+            if (defaults == null) {
+                merged = user;
+            } else if (user == null) {
+                merged = new Xpp3Dom(defaults);
+            } else {
+                // The merge modifies the dominant node, and copies any node taken from the defaults
+                merged = Xpp3Dom.mergeXpp3Dom(new Xpp3Dom(user), defaults);
+            }
+
+            if (strip && hasDirectives(merged)) {
+                result = removeDirectives(merged);
+            } else {
+                result = merged;
+            }
+
+            return result;
+        }
+
+    }
+
+}
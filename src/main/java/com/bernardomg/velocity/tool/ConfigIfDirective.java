@@ -0,0 +1,121 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.exception.MethodInvocationException;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.exception.TemplateInitException;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.directive.Directive;
+import org.apache.velocity.runtime.parser.node.Node;
+import org.apache.velocity.util.StringUtils;
+
+/**
+ * Velocity directive which renders a block only when a skin configuration flag is enabled.
+ * <p>
+ * It receives the name of the flag:
+ *
+ * <pre>
+ * {@code #configIf('enableSearch')
+ *   ...
+ * #end}
+ * </pre>
+ * <p>
+ * The flag is checked through the {@link ConfigTool} in the context, with {@link ConfigTool#isEnabled(String)}. So the
+ * decision is taken once for each skin configuration, and reused for all the pages, while disabled blocks are skipped
+ * without evaluating them.
+ * <p>
+ * The tool should be in the context under the {@code config} key, as set by the toolbox in
+ * {@code META-INF/maven/site-tools.xml}. If it is missing the rendering fails, instead of hiding the block.
+ * <p>
+ * Directives should be registered in the Velocity engine, through the {@code runtime.custom_directives} property.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ConfigIfDirective extends Directive {
+
+    /**
+     * Default constructor.
+     */
+    public ConfigIfDirective() {
+        super();
+    }
+
+    @Override
+    public final String getName() {
+        return "configIf";
+    }
+
+    @Override
+    public final int getType() {
+        return BLOCK;
+    }
+
+    @Override
+    public final void init(final RuntimeServices rs, final InternalContextAdapter context, final Node node)
+            throws TemplateInitException {
+        super.init(rs, context, node);
+
+        // The block is stored after the arguments
+        if (node.jjtGetNumChildren() != 2) {
+            throw new TemplateInitException("#" + getName() + "() requires a single argument, the flag name",
+                node.getTemplateName(), node.getColumn(), node.getLine());
+        }
+    }
+
+    @Override
+    public final boolean render(final InternalContextAdapter context, final Writer writer, final Node node)
+            throws IOException, ResourceNotFoundException, ParseErrorException, MethodInvocationException {
+        final Object  tool;    // Config tool in the context
+        final Object  flag;    // Flag name
+        final boolean enabled; // Flag telling if the block is rendered
+
+        tool = context.get(ConfigToolKeys.CONFIG_TOOL);
+        if (tool instanceof ConfigTool) {
+            flag = node.jjtGetChild(0)
+                .value(context);
+            enabled = (flag != null) && ((ConfigTool) tool).isEnabled(flag.toString());
+        } else {
+            // Skipping the block would hide it from every page without notice
+            throw new VelocityException("#" + getName() + "() requires the " + ConfigTool.class.getSimpleName()
+                    + " in the context, under the '" + ConfigToolKeys.CONFIG_TOOL + "' key, but it is missing at "
+                    + StringUtils.formatFileString(node));
+        }
+
+        if (enabled) {
+            node.jjtGetChild(1)
+                .render(context, writer);
+        }
+
+        return true;
+    }
+
+}
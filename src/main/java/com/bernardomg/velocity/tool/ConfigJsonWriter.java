@@ -0,0 +1,299 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Streaming JSON writer for configuration nodes.
+ * <p>
+ * Nodes are mapped to JSON following these rules:
+ * <ul>
+ * <li>A node without children or attributes becomes its value as a string, or {@code null} if it has no value.</li>
+ * <li>Any other node becomes an object, with each attribute stored as {@code "@name"}, the value, if not empty, as
+ * {@code "#text"}, and each child under its name.</li>
+ * <li>Children sharing a name are stored together in an array, in the same order as in the XML.</li>
+ * </ul>
+ * The JSON is written directly into the output, without creating intermediate objects for it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ConfigJsonWriter {
+
+    /**
+     * Prefix used for attribute names.
+     */
+    private static final String ATTRIBUTE_PREFIX = "@";
+
+    /**
+     * Name used for the node value, when it is stored inside an object.
+     */
+    private static final String TEXT_KEY         = "#text";
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private ConfigJsonWriter() {
+        super();
+    }
+
+    /**
+     * Returns the JSON for the node.
+     *
+     * @param node
+     *            node to serialize
+     * @return the node as JSON
+     */
+    static final String toJson(final Xpp3Dom node) {
+        final StringBuilder output;
+
+        Objects.requireNonNull(node, "Received a null pointer as node");
+
+        output = new StringBuilder();
+        writeNode(node, output);
+
+        return output.toString();
+    }
+
+    /**
+     * Returns the JSON object for a node, with its children already serialized.
+     * <p>
+     * This allows building the JSON for a node from JSON stored for its children, without serializing them again.
+     *
+     * @param header
+     *            node with the attributes and value to write
+     * @param children
+     *            JSON for each child, grouped by name
+     * @return the node as a JSON object
+     */
+    static final String toJsonObject(final Xpp3Dom header, final Map<String, List<String>> children) {
+        final StringBuilder output;
+
+        Objects.requireNonNull(header, "Received a null pointer as header");
+        Objects.requireNonNull(children, "Received a null pointer as children");
+
+        output = new StringBuilder();
+        output.append('{');
+        writeGroups(children, (json, out) -> out.append(json), output, writeHeader(header, output));
+        output.append('}');
+
+        return output.toString();
+    }
+
+    /**
+     * Writes the children of a node, grouped by name.
+     *
+     * @param node
+     *            node with the children to write
+     * @param output
+     *            output for the JSON
+     * @param first
+     *            flag telling if no member has been written yet into the object
+     */
+    private static final void writeChildren(final Xpp3Dom node, final StringBuilder output, final boolean first) {
+        final Map<String, List<Xpp3Dom>> groups;
+
+        groups = new LinkedHashMap<>();
+        for (final Xpp3Dom child : node.getChildren()) {
+            groups.computeIfAbsent(child.getName(), k -> new ArrayList<>(1))
+                .add(child);
+        }
+
+        writeGroups(groups, ConfigJsonWriter::writeNode, output, first);
+    }
+
+    /**
+     * Writes groups of values, each one under its name.
+     * <p>
+     * A group with a single value is written as that value, and any other as an array.
+     *
+     * @param <T>
+     *            type of the values
+     * @param groups
+     *            values grouped by name
+     * @param writer
+     *            writer for each value
+     * @param output
+     *            output for the JSON
+     * @param first
+     *            flag telling if no member has been written yet into the object
+     */
+    private static final <T> void writeGroups(final Map<String, List<T>> groups,
+            final BiConsumer<T, StringBuilder> writer, final StringBuilder output, final boolean first) {
+        boolean pending;
+
+        pending = first;
+        for (final Map.Entry<String, List<T>> group : groups.entrySet()) {
+            if (!pending) {
+                output.append(',');
+            }
+            pending = false;
+
+            writeString(group.getKey(), output);
+            output.append(':');
+            if (group.getValue()
+                .size() == 1) {
+                writer.accept(group.getValue()
+                    .get(0), output);
+            } else {
+                output.append('[');
+                for (int i = 0; i < group.getValue()
+                    .size(); i++) {
+                    if (i > 0) {
+                        output.append(',');
+                    }
+                    writer.accept(group.getValue()
+                        .get(i), output);
+                }
+                output.append(']');
+            }
+        }
+    }
+
+    /**
+     * Writes the attributes and value of a node, as members of an object.
+     *
+     * @param node
+     *            node to write
+     * @param output
+     *            output for the JSON
+     * @return {@code true} if no member has been written, {@code false} otherwise
+     */
+    private static final boolean writeHeader(final Xpp3Dom node, final StringBuilder output) {
+        boolean first;
+
+        first = true;
+        for (final String attribute : node.getAttributeNames()) {
+            if (!first) {
+                output.append(',');
+            }
+            first = false;
+
+            writeString(ATTRIBUTE_PREFIX + attribute, output);
+            output.append(':');
+            writeString(node.getAttribute(attribute), output);
+        }
+
+        if (!Xpp3Dom.isEmpty(node.getValue())) {
+            if (!first) {
+                output.append(',');
+            }
+            first = false;
+
+            writeString(TEXT_KEY, output);
+            output.append(':');
+            writeString(node.getValue(), output);
+        }
+
+        return first;
+    }
+
+    /**
+     * Writes a node, as a value or as an object depending on its contents.
+     *
+     * @param node
+     *            node to write
+     * @param output
+     *            output for the JSON
+     */
+    private static final void writeNode(final Xpp3Dom node, final StringBuilder output) {
+        if ((node.getChildCount() == 0) && (node.getAttributeNames().length == 0)) {
+            if (node.getValue() == null) {
+                output.append("null");
+            } else {
+                writeString(node.getValue(), output);
+            }
+        } else {
+            writeObject(node, output);
+        }
+    }
+
+    /**
+     * Writes a node as an object.
+     *
+     * @param node
+     *            node to write
+     * @param output
+     *            output for the JSON
+     */
+    private static final void writeObject(final Xpp3Dom node, final StringBuilder output) {
+        output.append('{');
+        writeChildren(node, output, writeHeader(node, output));
+        output.append('}');
+    }
+
+    /**
+     * Writes a quoted and escaped JSON string.
+     *
+     * @param text
+     *            text to write
+     * @param output
+     *            output for the JSON
+     */
+    private static final void writeString(final String text, final StringBuilder output) {
+        char character;
+
+        output.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            character = text.charAt(i);
+            switch (character) {
+                case '"':
+                    output.append("\\\"");
+                    break;
+                case '\\':
+                    output.append("\\\\");
+                    break;
+                case '\n':
+                    output.append("\\n");
+                    break;
+                case '\r':
+                    output.append("\\r");
+                    break;
+                case '\t':
+                    output.append("\\t");
+                    break;
+                case '<':
+                    // Avoids closing script tags when embedded into a page
+                    output.append("\\u003c");
+                    break;
+                default:
+                    if ((character < 0x20) || (character == '\u2028') || (character == '\u2029')) {
+                        output.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        output.append(character);
+                    }
+            }
+        }
+        output.append('"');
+    }
+
+}
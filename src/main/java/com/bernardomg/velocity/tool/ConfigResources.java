@@ -0,0 +1,125 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Loads XML documents from the classpath.
+ * <p>
+ * These are the documents shipped along the skin, next to the {@code META-INF/maven/site-tools.xml} file.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ConfigResources {
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private ConfigResources() {
+        super();
+    }
+
+    /**
+     * Returns the class loader for the skin resources.
+     * <p>
+     * This is the context class loader, as Maven Site sets it to the skin class loader, or the class loader of this
+     * tool if there is none.
+     *
+     * @return the class loader for the skin resources
+     */
+    static final ClassLoader getClassLoader() {
+        final ClassLoader contextLoader;
+        final ClassLoader loader;
+
+        contextLoader = Thread.currentThread()
+            .getContextClassLoader();
+        if (contextLoader == null) {
+            loader = ConfigResources.class.getClassLoader();
+        } else {
+            loader = contextLoader;
+        }
+
+        return loader;
+    }
+
+    /**
+     * Returns the root node of the XML document in the classpath resource.
+     * <p>
+     * The resource is searched with the context class loader first, as Maven Site sets it to the skin class loader, and
+     * then with the class loader of this tool.
+     *
+     * @param resource
+     *            path to the resource
+     * @return the root node of the document, or {@code null} if the resource does not exist
+     * @throws IllegalArgumentException
+     *             if the resource is not a valid XML document
+     */
+    static final Xpp3Dom load(final String resource) {
+        final String path;
+        InputStream  stream;
+        Xpp3Dom      root;
+
+        Objects.requireNonNull(resource, "Received a null pointer as resource");
+
+        // Class loader resources never start with a slash
+        if (resource.startsWith("/")) {
+            path = resource.substring(1);
+        } else {
+            path = resource;
+        }
+
+        stream = getClassLoader().getResourceAsStream(path);
+        if (stream == null) {
+            stream = ConfigResources.class.getClassLoader()
+                .getResourceAsStream(path);
+        }
+
+        if (stream == null) {
+            root = null;
+        } else {
+            try (final Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                root = Xpp3DomBuilder.build(reader);
+            } catch (final XmlPullParserException e) {
+                throw new IllegalArgumentException("Invalid XML in " + resource, e);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed reading " + resource, e);
+            }
+        }
+
+        return root;
+    }
+
+}
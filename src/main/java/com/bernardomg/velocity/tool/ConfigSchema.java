@@ -0,0 +1,524 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Schema for the skin configuration.
+ * <p>
+ * It defines, for each top-level key, its type, default value, allowed values, and if it is required:
+ *
+ * <pre>
+ * {@code <schema>
+ *   <key name="enableSearch" type="boolean" default="false" />
+ *   <key name="theme" values="light,dark" default="light" />
+ *   <key name="maxItems" type="integer" />
+ *   <key name="title" required="true" />
+ *   <key name="topNav" type="node" />
+ * </schema>}
+ * </pre>
+ * <p>
+ * The supported types are {@code string}, the default, {@code boolean}, {@code integer} and {@code node}, for nodes
+ * with children, whose value is not checked.
+ * <p>
+ * The schema is applied once to each configuration. All the errors found are reported together, and the values are
+ * stored coerced to a canonical form, with the defaults added for missing keys.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ConfigSchema {
+
+    /**
+     * Schema without any key, which accepts any configuration.
+     */
+    static final ConfigSchema      NONE = new ConfigSchema(Collections.emptyMap());
+
+    /**
+     * Rules for each key, keyed by name.
+     */
+    private final Map<String, Key> keys;
+
+    /**
+     * Constructs a schema with the received rules.
+     *
+     * @param rules
+     *            rules for each key
+     */
+    private ConfigSchema(final Map<String, Key> rules) {
+        super();
+
+        keys = Collections.unmodifiableMap(rules);
+    }
+
+    /**
+     * Loads the schema from a classpath resource.
+     *
+     * @param resource
+     *            path to the schema resource
+     * @param required
+     *            flag telling if the resource should exist
+     * @return the schema, or {@link #NONE} if the resource does not exist and is not required
+     */
+    static final ConfigSchema load(final String resource, final boolean required) {
+        final ConfigSchema schema;
+        final Xpp3Dom      root;
+
+        Objects.requireNonNull(resource, "Received a null pointer as resource");
+
+        root = ConfigResources.load(resource);
+        if (root != null) {
+            schema = parse(root);
+        } else if (required) {
+            throw new IllegalArgumentException("Skin configuration schema " + resource + " not found");
+        } else {
+            schema = NONE;
+        }
+
+        return schema;
+    }
+
+    /**
+     * Parses the schema from its root node.
+     *
+     * @param root
+     *            schema root node
+     * @return the parsed schema
+     */
+    static final ConfigSchema parse(final Xpp3Dom root) {
+        final Map<String, Key> rules;
+        final List<String>     errors;
+        Key                    key;
+
+        Objects.requireNonNull(root, "Received a null pointer as root");
+
+        rules = new LinkedHashMap<>();
+        errors = new ArrayList<>();
+        for (final Xpp3Dom node : root.getChildren("key")) {
+            key = Key.parse(node, errors);
+            if (key != null) {
+                if (rules.containsKey(key.name)) {
+                    errors.add("key '" + key.name + "' is defined more than once");
+                } else {
+                    rules.put(key.name, key);
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(toMessage("Invalid skin configuration schema", errors));
+        }
+
+        return new ConfigSchema(rules);
+    }
+
+    /**
+     * Throws an exception listing the errors, if there is any.
+     *
+     * @param errors
+     *            errors found while applying the schema
+     * @throws IllegalArgumentException
+     *             if there is any error, listing all of them
+     */
+    static final void requireValid(final List<String> errors) {
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(toMessage("Invalid skin configuration", errors));
+        }
+    }
+
+    /**
+     * Returns the error message listing all the errors.
+     *
+     * @param title
+     *            message title
+     * @param errors
+     *            errors to list
+     * @return the error message
+     */
+    private static final String toMessage(final String title, final List<String> errors) {
+        final StringBuilder message;
+
+        message = new StringBuilder(title).append(':');
+        for (final String error : errors) {
+            message.append("\n - ")
+                .append(error);
+        }
+
+        return message.toString();
+    }
+
+    /**
+     * Applies the schema to a top-level configuration node.
+     * <p>
+     * The received node is not modified. If its value is coerced, or the default is set, a copy is returned instead.
+     * Otherwise the same node is returned.
+     *
+     * @param node
+     *            node to validate
+     * @param errors
+     *            list where the errors are added
+     * @return the validated node
+     */
+    final Xpp3Dom apply(final Xpp3Dom node, final List<String> errors) {
+        final Key     key;
+        final String  value;
+        final Xpp3Dom result;
+
+        Objects.requireNonNull(node, "Received a null pointer as node");
+        Objects.requireNonNull(errors, "Received a null pointer as errors");
+
+        key = keys.get(node.getName());
+        if (key == null) {
+            result = node;
+        } else {
+            value = key.apply(node.getValue(), errors);
+            if (Objects.equals(value, node.getValue())) {
+                result = node;
+            } else {
+                result = new Xpp3Dom(node);
+                result.setValue(value);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the nodes for the keys missing in the configuration.
+     * <p>
+     * A node is returned for each missing key with a default value, while the missing required keys are added to the
+     * errors.
+     *
+     * @param names
+     *            names of the top-level nodes in the configuration
+     * @param errors
+     *            list where the errors are added
+     * @return the nodes with the default values
+     */
+    final List<Xpp3Dom> getMissing(final Set<String> names, final List<String> errors) {
+        final List<Xpp3Dom> missing;
+        Xpp3Dom             node;
+
+        Objects.requireNonNull(names, "Received a null pointer as names");
+        Objects.requireNonNull(errors, "Received a null pointer as errors");
+
+        missing = new ArrayList<>();
+        for (final Key key : keys.values()) {
+            if (!names.contains(key.name)) {
+                if (key.defaultValue != null) {
+                    node = new Xpp3Dom(key.name);
+                    node.setValue(key.defaultValue);
+                    missing.add(node);
+                } else if (key.required) {
+                    errors.add("key '" + key.name + "' is required");
+                }
+            }
+        }
+
+        return missing;
+    }
+
+    /**
+     * Returns the typed value for a top-level node.
+     * <p>
+     * This will be a {@code Boolean} or an {@code Integer} for keys with those types, and the node value for any other
+     * key.
+     *
+     * @param node
+     *            node with the value, after applying the schema
+     * @return the typed value
+     */
+    final Object getValue(final Xpp3Dom node) {
+        final Key    key;
+        final Object value;
+
+        key = keys.get(node.getName());
+        if ((key == null) || (node.getValue() == null)) {
+            value = node.getValue();
+        } else if (Type.BOOLEAN == key.type) {
+            value = Boolean.valueOf(node.getValue());
+        } else if (Type.INTEGER == key.type) {
+            value = Integer.valueOf(node.getValue());
+        } else {
+            value = node.getValue();
+        }
+
+        return value;
+    }
+
+    /**
+     * Tells if the schema contains no key.
+     *
+     * @return {@code true} if the schema contains no key
+     */
+    final boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * Value types.
+     */
+    private enum Type {
+        /**
+         * Boolean value, stored as {@code true} or {@code false}.
+         */
+        BOOLEAN,
+        /**
+         * Integer value.
+         */
+        INTEGER,
+        /**
+         * Node with children, its value is not checked.
+         */
+        NODE,
+        /**
+         * Text value.
+         */
+        STRING
+    }
+
+    /**
+     * Rules for a key.
+     */
+    private static final class Key {
+
+        /**
+         * Texts accepted as {@code false}.
+         */
+        private static final Set<String> FALSE = new LinkedHashSet<>(Arrays.asList("false", "no", "off", "0"));
+
+        /**
+         * Texts accepted as {@code true}.
+         */
+        private static final Set<String> TRUE  = new LinkedHashSet<>(Arrays.asList("true", "yes", "on", "1"));
+
+        /**
+         * Allowed values, empty if any value is allowed.
+         */
+        private final Set<String>        allowed;
+
+        /**
+         * Default value, coerced.
+         */
+        private final String             defaultValue;
+
+        /**
+         * Key name.
+         */
+        private final String             name;
+
+        /**
+         * Flag telling if the key is required.
+         */
+        private final boolean            required;
+
+        /**
+         * Value type.
+         */
+        private final Type               type;
+
+        /**
+         * Constructs the rules for a key.
+         *
+         * @param keyName
+         *            key name
+         * @param keyType
+         *            value type
+         * @param keyAllowed
+         *            allowed values
+         * @param keyDefault
+         *            default value
+         * @param keyRequired
+         *            flag telling if the key is required
+         */
+        private Key(final String keyName, final Type keyType, final Set<String> keyAllowed, final String keyDefault,
+                final boolean keyRequired) {
+            super();
+
+            name = keyName;
+            type = keyType;
+            allowed = keyAllowed;
+            defaultValue = keyDefault;
+            required = keyRequired;
+        }
+
+        /**
+         * Parses the rules for a key.
+         *
+         * @param node
+         *            key node
+         * @param errors
+         *            list where the errors are added
+         * @return the key rules, or {@code null} if they are not valid
+         */
+        private static final Key parse(final Xpp3Dom node, final List<String> errors) {
+            final String      name;
+            final String      typeName;
+            final String      values;
+            final Set<String> allowed;
+            final int         errorCount;
+            Type              type;
+            String            defaultValue;
+            Key               key;
+
+            errorCount = errors.size();
+
+            name = node.getAttribute("name");
+            if (Xpp3Dom.isEmpty(name)) {
+                errors.add("found a key without name");
+            }
+
+            typeName = node.getAttribute("type");
+            if (typeName == null) {
+                type = Type.STRING;
+            } else {
+                try {
+                    type = Type.valueOf(typeName.trim()
+                        .toUpperCase(Locale.ENGLISH));
+                } catch (final IllegalArgumentException e) {
+                    errors.add("key '" + name + "' has unknown type '" + typeName + "'");
+                    type = Type.STRING;
+                }
+            }
+
+            allowed = new LinkedHashSet<>();
+            values = node.getAttribute("values");
+            if (values != null) {
+                for (final String value : values.split(",")) {
+                    allowed.add(value.trim());
+                }
+            }
+
+            key = new Key(name, type, Collections.unmodifiableSet(allowed), null,
+                Boolean.parseBoolean(node.getAttribute("required")));
+
+            defaultValue = node.getAttribute("default");
+            if (defaultValue != null) {
+                // The default value should be valid too
+                defaultValue = key.coerce(defaultValue, errors);
+                key = new Key(name, type, key.allowed, defaultValue, key.required);
+            }
+
+            if (errors.size() > errorCount) {
+                key = null;
+            }
+
+            return key;
+        }
+
+        /**
+         * Validates and coerces a node value.
+         *
+         * @param value
+         *            value to validate, may be {@code null}
+         * @param errors
+         *            list where the errors are added
+         * @return the coerced value, or the received one if it is kept or not valid
+         */
+        private final String apply(final String value, final List<String> errors) {
+            String result;
+
+            result = value;
+            if (Type.NODE != type) {
+                if (Xpp3Dom.isEmpty(value) || value.trim()
+                    .isEmpty()) {
+                    if (defaultValue != null) {
+                        result = defaultValue;
+                    } else if (required) {
+                        errors.add("key '" + name + "' is required, but it is empty");
+                    }
+                } else {
+                    result = coerce(value, errors);
+                    if (result == null) {
+                        result = value;
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Returns the value coerced to the key type.
+         *
+         * @param value
+         *            value to coerce
+         * @param errors
+         *            list where the errors are added
+         * @return the coerced value, or {@code null} if it is not valid
+         */
+        private final String coerce(final String value, final List<String> errors) {
+            final String trimmed;
+            String       coerced;
+
+            trimmed = value.trim();
+            switch (type) {
+                case BOOLEAN:
+                    if (TRUE.contains(trimmed.toLowerCase(Locale.ENGLISH))) {
+                        coerced = Boolean.TRUE.toString();
+                    } else if (FALSE.contains(trimmed.toLowerCase(Locale.ENGLISH))) {
+                        coerced = Boolean.FALSE.toString();
+                    } else {
+                        errors.add("key '" + name + "' should be a boolean, but it is '" + value + "'");
+                        coerced = null;
+                    }
+                    break;
+                case INTEGER:
+                    try {
+                        coerced = String.valueOf(Integer.parseInt(trimmed));
+                    } catch (final NumberFormatException e) {
+                        errors.add("key '" + name + "' should be an integer, but it is '" + value + "'");
+                        coerced = null;
+                    }
+                    break;
+                case NODE:
+                    coerced = value;
+                    break;
+                default:
+                    coerced = trimmed;
+            }
+
+            if ((coerced != null) && (!allowed.isEmpty()) && (!allowed.contains(coerced))) {
+                errors.add("key '" + name + "' should be one of " + allowed + ", but it is '" + value + "'");
+                coerced = null;
+            }
+
+            return coerced;
+        }
+
+    }
+
+}
@@ -0,0 +1,942 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Immutable view of a skin configuration, shared by all the pages using it.
+ * <p>
+ * The tool is request-scoped, so a new instance is created for each page, while the skin configuration is the same for
+ * all of them. Anything derived from the configuration is stored here, so it is computed only once.
+ * <p>
+ * Snapshots are acquired through {@link #of(Xpp3Dom, ConfigSchema, ConfigDefaults, boolean)}, which reuses the snapshot
+ * for the same configuration node, schema and defaults. Each locale has its own decoration model, and so its own
+ * snapshot.
+ * <p>
+ * The defaults and the schema are applied when building the snapshot, so the values stored are already merged,
+ * validated and coerced.
+ * <p>
+ * The data for each top-level node is kept in an entry. When building a snapshot, the entries from the snapshot for the
+ * default locale are reused for the nodes which have not changed. Multi-locale sites usually have nearly the same
+ * configuration for all the locales, so most of the entries, along with anything derived from them, are shared between
+ * locales, and only the differences are merged, validated and digested again.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class ConfigSnapshot {
+
+    /**
+     * Snapshot for an empty configuration.
+     */
+    static final ConfigSnapshot                                                 EMPTY         = new ConfigSnapshot(
+        new Xpp3Dom(""), ConfigSchema.NONE, ConfigDefaults.NONE, null);
+
+    /**
+     * Maximum number of base snapshots kept in the cache.
+     * <p>
+     * There will be usually a single schema and defaults pair for each skin.
+     */
+    private static final int                                                    BASE_CAPACITY = 4;
+
+    /**
+     * Snapshots for the default locale, keyed by schema and defaults.
+     * <p>
+     * The snapshots for other locales share the unchanged entries with them.
+     */
+    private static final BoundedCache<NodeKey, AtomicReference<ConfigSnapshot>> BASES         = new BoundedCache<>(
+        BASE_CAPACITY);
+
+    /**
+     * Maximum number of snapshots kept in the cache.
+     * <p>
+     * There will be usually a single configuration for each site, or one per locale.
+     */
+    private static final int                                                    CAPACITY      = 16;
+
+    /**
+     * Key node for empty configurations.
+     * <p>
+     * Each page without configuration receives a new empty node, so they all share this one as key instead.
+     */
+    private static final Xpp3Dom                                                EMPTY_NODE    = new Xpp3Dom("");
+
+    /**
+     * Snapshots cache, keyed by the configuration node instance.
+     */
+    private static final BoundedCache<NodeKey, ConfigSnapshot>                  SNAPSHOTS     = new BoundedCache<>(
+        CAPACITY);
+
+    /**
+     * Digest of the configuration contents.
+     */
+    private final String                                                        fingerprint;
+
+    /**
+     * Decisions for the flags already checked, keyed by name.
+     */
+    private final ConcurrentMap<String, Boolean>                                flags;
+
+    /**
+     * Entries for the top-level nodes, grouped by name, in the same order as in the configuration.
+     */
+    private final Map<String, List<Entry>>                                      groups;
+
+    /**
+     * Root node of the configuration, with its attributes and value, but without children.
+     */
+    private final Xpp3Dom                                                       header;
+
+    /**
+     * Cached JSON for the full configuration.
+     */
+    private volatile String                                                     json;
+
+    /**
+     * Schema applied to the configuration.
+     */
+    private final ConfigSchema                                                  schema;
+
+    /**
+     * Constructs a snapshot for the configuration node.
+     * <p>
+     * The entries from the base snapshot are reused for any unchanged node. A node is unchanged if it is equal to the
+     * user node of the base entry, and it is merged with the same default node. Only the changed nodes are merged,
+     * validated and digested.
+     *
+     * @param config
+     *            skin configuration node
+     * @param configSchema
+     *            schema to apply
+     * @param configDefaults
+     *            defaults to merge
+     * @param base
+     *            snapshot to share entries with, using the same schema and defaults, may be {@code null}
+     */
+    private ConfigSnapshot(final Xpp3Dom config, final ConfigSchema configSchema,
+            final ConfigDefaults configDefaults, final ConfigSnapshot base) {
+        super();
+
+        final Map<String, List<Entry>> built;  // Entries for the top-level nodes
+        final List<String>             errors; // Errors found while applying the schema
+        final MessageDigest            digest; // Digest for the full configuration
+        Entry                          entry;
+
+        Objects.requireNonNull(config, "Received a null pointer as config");
+        schema = Objects.requireNonNull(configSchema, "Received a null pointer as schema");
+        Objects.requireNonNull(configDefaults, "Received a null pointer as defaults");
+
+        header = configDefaults.getHeader(config);
+
+        digest = newDigest();
+        updateHeader(digest, header);
+
+        built = new LinkedHashMap<>();
+        errors = new ArrayList<>();
+        for (final ConfigDefaults.Source source : configDefaults.getSources(config)) {
+            entry = getShared(base, built, source.getName(), source.getUser(), source.getDefaults());
+            if (entry == null) {
+                // Defaults are merged before validating, so they can fill required keys
+                entry = newEntry(source.getUser(), source.getDefaults(), source.merge(), errors);
+            }
+            add(built, entry, digest);
+        }
+        for (final Xpp3Dom node : schema.getMissing(built.keySet(), errors)) {
+            entry = getShared(base, built, node.getName(), null, null);
+            if (entry == null) {
+                entry = newEntry(null, null, node, errors);
+            }
+            add(built, entry, digest);
+        }
+        digest.update((byte) ')');
+
+        // Fails if the configuration is not valid
+        ConfigSchema.requireValid(errors);
+
+        // Lists are made immutable, so they can be shared
+        built.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        groups = Collections.unmodifiableMap(built);
+        fingerprint = toHex(digest.digest());
+        flags = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the snapshot for the configuration node.
+     * <p>
+     * The same node instance, schema and defaults will always receive the same snapshot, as long as it is kept in the
+     * cache.
+     * <p>
+     * The snapshot for the default locale is used as base for the other locales, which share its unchanged entries.
+     *
+     * @param config
+     *            skin configuration node
+     * @param schema
+     *            schema to apply
+     * @param defaults
+     *            defaults to merge
+     * @param defaultLocale
+     *            flag telling if the configuration is for the default locale
+     * @return the snapshot for the configuration node
+     * @throws IllegalArgumentException
+     *             if the configuration is not valid for the schema
+     */
+    static final ConfigSnapshot of(final Xpp3Dom config, final ConfigSchema schema, final ConfigDefaults defaults,
+            final boolean defaultLocale) {
+        final ConfigSnapshot snapshot;
+        final boolean        empty;
+
+        Objects.requireNonNull(config, "Received a null pointer as config");
+        Objects.requireNonNull(schema, "Received a null pointer as schema");
+        Objects.requireNonNull(defaults, "Received a null pointer as defaults");
+
+        empty = (config.getChildCount() == 0) && (config.getAttributeNames().length == 0)
+                && Xpp3Dom.isEmpty(config.getValue());
+        if (empty && schema.isEmpty() && defaults.isEmpty()) {
+            // Empty nodes are not cached, as there is nothing to reuse
+            snapshot = EMPTY;
+        } else if (empty) {
+            // All the empty nodes share the same snapshot
+            snapshot = SNAPSHOTS.get(new NodeKey(EMPTY_NODE, schema, defaults),
+                k -> build(EMPTY_NODE, schema, defaults, defaultLocale));
+        } else {
+            snapshot = SNAPSHOTS.get(new NodeKey(config, schema, defaults),
+                k -> build(config, schema, defaults, defaultLocale));
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Adds the entry to the groups, and its fingerprint to the digest.
+     *
+     * @param groups
+     *            entries grouped by name
+     * @param entry
+     *            entry to add
+     * @param digest
+     *            digest for the full configuration
+     */
+    private static final void add(final Map<String, List<Entry>> groups, final Entry entry,
+            final MessageDigest digest) {
+        groups.computeIfAbsent(entry.node.getName(), k -> new ArrayList<>(1))
+            .add(entry);
+        update(digest, 'c', entry.fingerprint);
+    }
+
+    /**
+     * Builds a new snapshot, sharing entries with the snapshot for the default locale.
+     *
+     * @param config
+     *            skin configuration node
+     * @param schema
+     *            schema to apply
+     * @param defaults
+     *            defaults to merge
+     * @param defaultLocale
+     *            flag telling if the configuration is for the default locale
+     * @return the new snapshot
+     */
+    private static final ConfigSnapshot build(final Xpp3Dom config, final ConfigSchema schema,
+            final ConfigDefaults defaults, final boolean defaultLocale) {
+        final AtomicReference<ConfigSnapshot> base;     // Snapshot for the default locale
+        final ConfigSnapshot                  snapshot; // New snapshot
+
+        base = BASES.get(new NodeKey(null, schema, defaults), k -> new AtomicReference<>());
+        snapshot = new ConfigSnapshot(config, schema, defaults, base.get());
+        if (defaultLocale) {
+            base.set(snapshot);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Returns the SHA-256 digest of the node contents, as an hexadecimal string.
+     *
+     * @param node
+     *            node to digest
+     * @return the digest of the node
+     */
+    private static final String digest(final Xpp3Dom node) {
+        final MessageDigest digest;
+
+        digest = newDigest();
+        update(digest, node);
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Indicates if the typed value is a true flag.
+     * <p>
+     * Values coerced by the schema are booleans, while any other value is a string.
+     *
+     * @param value
+     *            value to check
+     * @return {@code true} if the value is true, {@code false} otherwise
+     */
+    private static final boolean isTrue(final Object value) {
+        final boolean result;
+
+        if (value instanceof Boolean) {
+            result = (Boolean) value;
+        } else {
+            result = (value != null) && "true".equalsIgnoreCase(value.toString()
+                .trim());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a new SHA-256 digest.
+     *
+     * @return a new digest
+     */
+    private static final MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // All the JVMs are required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the bytes as an hexadecimal string.
+     *
+     * @param bytes
+     *            bytes to transform
+     * @return the hexadecimal string
+     */
+    private static final String toHex(final byte[] bytes) {
+        final StringBuilder hex;
+
+        hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                .append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return hex.toString();
+    }
+
+    /**
+     * Adds a marked text to the digest.
+     *
+     * @param digest
+     *            digest to update
+     * @param marker
+     *            marker for the text
+     * @param text
+     *            text to add, may be {@code null}
+     */
+    private static final void update(final MessageDigest digest, final char marker, final String text) {
+        digest.update((byte) marker);
+        if (text == null) {
+            // Distinguishes missing texts from empty ones
+            digest.update((byte) 1);
+        } else {
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    /**
+     * Adds the node contents to the digest.
+     * <p>
+     * Each part is prefixed with a marker and followed by a separator, so different structures can't produce the same
+     * sequence.
+     *
+     * @param digest
+     *            digest to update
+     * @param node
+     *            node to add
+     */
+    private static final void update(final MessageDigest digest, final Xpp3Dom node) {
+        updateHeader(digest, node);
+        for (final Xpp3Dom child : node.getChildren()) {
+            update(digest, child);
+        }
+        digest.update((byte) ')');
+    }
+
+    /**
+     * Adds the node name, attributes and value to the digest.
+     *
+     * @param digest
+     *            digest to update
+     * @param node
+     *            node to add
+     */
+    private static final void updateHeader(final MessageDigest digest, final Xpp3Dom node) {
+        update(digest, 'n', node.getName());
+        for (final String attribute : node.getAttributeNames()) {
+            update(digest, 'a', attribute);
+            update(digest, '=', node.getAttribute(attribute));
+        }
+        update(digest, 'v', node.getValue());
+    }
+
+    /**
+     * Returns the attributes of the children with the received name, inside the configuration node at the received
+     * path.
+     *
+     * @param path
+     *            path to the node, with the names separated by slashes
+     * @param child
+     *            name of the children
+     * @return the attributes of the children, or an empty list if there are none
+     */
+    final List<Map<String, String>> getAttributes(final String path, final String child) {
+        final Entry               entry;
+        List<Map<String, String>> attributes;
+
+        entry = getEntryAt(path);
+        if (entry == null) {
+            attributes = null;
+        } else {
+            attributes = entry.attributes.get(child);
+        }
+
+        if (attributes == null) {
+            attributes = Collections.emptyList();
+        }
+
+        return attributes;
+    }
+
+    /**
+     * Returns the children with the received name, inside the configuration node at the received path.
+     *
+     * @param path
+     *            path to the node, with the names separated by slashes
+     * @param child
+     *            name of the children
+     * @return the children, or an empty list if there are none
+     */
+    final List<Xpp3Dom> getChildren(final String path, final String child) {
+        final Entry   entry;
+        List<Xpp3Dom> children;
+
+        entry = getEntryAt(path);
+        if (entry == null) {
+            children = null;
+        } else {
+            children = entry.children.get(child);
+        }
+
+        if (children == null) {
+            children = Collections.emptyList();
+        }
+
+        return children;
+    }
+
+    /**
+     * Returns the configuration node with the received name.
+     * <p>
+     * Nodes equal to those of a previous snapshot are shared with it, so the node returned may belong to another
+     * locale's configuration, but it will always have the same contents.
+     *
+     * @param property
+     *            name of the node
+     * @return the node with the received name, or {@code null} if there is none
+     */
+    final Xpp3Dom get(final String property) {
+        final Entry   entry;
+        final Xpp3Dom node;
+
+        entry = getEntry(property);
+        if (entry == null) {
+            node = null;
+        } else {
+            node = entry.node;
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns a digest of the configuration contents.
+     * <p>
+     * Two snapshots with equal configurations, even if created from different nodes, will have the same fingerprint.
+     *
+     * @return the fingerprint of the configuration
+     */
+    final String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the full configuration as a JSON object.
+     * <p>
+     * It is built on the first call from the JSON of each entry, which may be shared with other snapshots, and then
+     * reused.
+     *
+     * @return the configuration as JSON
+     */
+    final String getJson() {
+        final Map<String, List<String>> children; // JSON for the entries, grouped by name
+        List<String>                    group;
+        String                          result;
+
+        result = json;
+        if (result == null) {
+            children = new LinkedHashMap<>();
+            for (final Map.Entry<String, List<Entry>> entries : groups.entrySet()) {
+                group = new ArrayList<>(entries.getValue()
+                    .size());
+                for (final Entry entry : entries.getValue()) {
+                    group.add(entry.getJson());
+                }
+                children.put(entries.getKey(), group);
+            }
+
+            // Concurrent calls may build it twice, but the results are equal
+            result = ConfigJsonWriter.toJsonObject(header, children);
+            json = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the configuration node with the received name as JSON.
+     * <p>
+     * It is serialized on the first call, and then reused, also by any other snapshot sharing the node.
+     *
+     * @param property
+     *            name of the node
+     * @return the node as JSON, or {@code null} if there is no such node
+     */
+    final String getJson(final String property) {
+        final Entry  entry;
+        final String result;
+
+        entry = getEntry(property);
+        if (entry == null) {
+            result = null;
+        } else {
+            result = entry.getJson();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the typed value of the configuration node with the received name.
+     *
+     * @param property
+     *            name of the node
+     * @return the typed value of the node, or {@code null} if there is no such node or it has no value
+     */
+    final Object getValue(final String property) {
+        final Entry  entry;
+        final Object value;
+
+        entry = getEntry(property);
+        if (entry == null) {
+            value = null;
+        } else {
+            value = entry.value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Indicates if the configuration flag with the received name is enabled.
+     * <p>
+     * The decision is stored, so each flag is checked only once for the snapshot.
+     *
+     * @param property
+     *            name of the flag
+     * @return {@code true} if the flag value is {@code true}, ignoring case, {@code false} otherwise
+     */
+    final boolean isEnabled(final String property) {
+        return flags.computeIfAbsent(property, p -> Boolean.valueOf(isTrue(getValue(p))));
+    }
+
+    /**
+     * Returns the entry for the first node with the received name.
+     *
+     * @param property
+     *            name of the node
+     * @return the entry for the node, or {@code null} if there is none
+     */
+    private final Entry getEntry(final String property) {
+        final List<Entry> group;
+        final Entry       entry;
+
+        group = groups.get(property);
+        if (group == null) {
+            entry = null;
+        } else {
+            entry = group.get(0);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Returns the entry for the node at the received path.
+     * <p>
+     * The path starts with the name of a top-level node, and may continue with the names of nested nodes, separated by
+     * slashes. The first node with each name is taken, as {@link Xpp3Dom#getChild(String)} does.
+     *
+     * @param path
+     *            path to the node
+     * @return the entry for the node, or {@code null} if there is none
+     */
+    private final Entry getEntryAt(final String path) {
+        final int separator; // Position of the first separator
+        Entry     entry;
+
+        separator = path.indexOf('/');
+        if (separator < 0) {
+            entry = getEntry(path);
+        } else {
+            entry = getEntry(path.substring(0, separator));
+            if (entry != null) {
+                entry = entry.getDescendant(path.substring(separator + 1));
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Returns the base entry which can be shared for a node, if there is any.
+     * <p>
+     * The entry in the same position, among the nodes with the same name, is shared if it was built from an equal user
+     * node and the same default node. Comparing the user nodes doesn't copy them, and stops at the first difference.
+     *
+     * @param base
+     *            snapshot to share entries with, may be {@code null}
+     * @param built
+     *            entries already built for the snapshot, grouped by name
+     * @param name
+     *            name of the node
+     * @param user
+     *            user node, may be {@code null}
+     * @param defaultsNode
+     *            default node, may be {@code null}
+     * @return the entry to share, or {@code null} if there is none
+     */
+    private final Entry getShared(final ConfigSnapshot base, final Map<String, List<Entry>> built, final String name,
+            final Xpp3Dom user, final Xpp3Dom defaultsNode) {
+        final List<Entry> baseGroup; // Base entries with the same name
+        final List<Entry> group;     // Entries already built with the same name
+        final int         index;     // Position among the nodes with the same name
+        Entry             entry;
+
+        if (base == null) {
+            entry = null;
+        } else {
+            baseGroup = base.groups.get(name);
+            group = built.get(name);
+            if (group == null) {
+                index = 0;
+            } else {
+                index = group.size();
+            }
+
+            if ((baseGroup == null) || (index >= baseGroup.size())) {
+                entry = null;
+            } else {
+                entry = baseGroup.get(index);
+                if ((entry.defaultsNode != defaultsNode) || (!Objects.equals(entry.user, user))) {
+                    // Changed node
+                    entry = null;
+                }
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Builds a new entry for a node.
+     *
+     * @param user
+     *            user node, may be {@code null}
+     * @param defaultsNode
+     *            default node, may be {@code null}
+     * @param merged
+     *            node merged with the defaults
+     * @param errors
+     *            list where the errors are added
+     * @return the new entry
+     */
+    private final Entry newEntry(final Xpp3Dom user, final Xpp3Dom defaultsNode, final Xpp3Dom merged,
+            final List<String> errors) {
+        final Xpp3Dom node;       // Validated node
+        final int     errorCount; // Errors before validating the node
+        final Object  value;      // Typed value
+
+        errorCount = errors.size();
+        node = schema.apply(merged, errors);
+        if (errors.size() > errorCount) {
+            // Not valid, the snapshot won't be built
+            value = null;
+        } else {
+            value = schema.getValue(node);
+        }
+
+        return new Entry(user, defaultsNode, node, digest(node), value);
+    }
+
+    /**
+     * Data for a top-level configuration node.
+     * <p>
+     * Entries are immutable, other than the lazily computed values, and can be shared between snapshots.
+     * <p>
+     * The node children are grouped by name when creating the entry, along with their attributes, so repeated children
+     * can be iterated without searching for them, or copying them, each time.
+     */
+    private static final class Entry {
+
+        /**
+         * Attributes of the node children, grouped by child name.
+         */
+        private final Map<String, List<Map<String, String>>> attributes;
+
+        /**
+         * Node children, grouped by name.
+         */
+        private final Map<String, List<Xpp3Dom>>             children;
+
+        /**
+         * Entries for the nested nodes already requested, keyed by path.
+         */
+        private final ConcurrentMap<String, Entry>           descendants;
+
+        /**
+         * Default node the entry was merged with, may be {@code null}.
+         */
+        private final Xpp3Dom                                defaultsNode;
+
+        /**
+         * Digest of the node contents.
+         */
+        private final String                                 fingerprint;
+
+        /**
+         * Cached JSON for the node.
+         */
+        private volatile String                              json;
+
+        /**
+         * Configuration node, after merging the defaults and applying the schema.
+         */
+        private final Xpp3Dom                                node;
+
+        /**
+         * User node the entry was built from, may be {@code null}.
+         */
+        private final Xpp3Dom                                user;
+
+        /**
+         * Typed value of the node.
+         */
+        private final Object                                 value;
+
+        /**
+         * Constructs an entry for the node.
+         *
+         * @param userNode
+         *            user node, may be {@code null}
+         * @param defaults
+         *            default node, may be {@code null}
+         * @param entryNode
+         *            configuration node
+         * @param entryFingerprint
+         *            digest of the node contents
+         * @param entryValue
+         *            typed value of the node
+         */
+        private Entry(final Xpp3Dom userNode, final Xpp3Dom defaults, final Xpp3Dom entryNode,
+                final String entryFingerprint, final Object entryValue) {
+            super();
+
+            final Map<String, List<Xpp3Dom>>             groups;
+            final Map<String, List<Map<String, String>>> attributeGroups;
+            Map<String, String>                          childAttributes;
+
+            user = userNode;
+            defaultsNode = defaults;
+            node = entryNode;
+            descendants = new ConcurrentHashMap<>();
+            fingerprint = entryFingerprint;
+            value = entryValue;
+
+            groups = new LinkedHashMap<>();
+            attributeGroups = new LinkedHashMap<>();
+            for (final Xpp3Dom child : node.getChildren()) {
+                groups.computeIfAbsent(child.getName(), k -> new ArrayList<>())
+                    .add(child);
+
+                childAttributes = new LinkedHashMap<>();
+                for (final String attribute : child.getAttributeNames()) {
+                    childAttributes.put(attribute, child.getAttribute(attribute));
+                }
+                attributeGroups.computeIfAbsent(child.getName(), k -> new ArrayList<>())
+                    .add(Collections.unmodifiableMap(childAttributes));
+            }
+
+            // Lists are made immutable, so they can be returned without copying
+            groups.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            attributeGroups.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+            children = groups;
+            attributes = attributeGroups;
+        }
+
+        /**
+         * Returns the entry for the nested node at the received path.
+         * <p>
+         * It is created on the first call, and then reused, also by any other snapshot sharing this entry.
+         *
+         * @param path
+         *            path to the nested node, with the names separated by slashes
+         * @return the entry for the nested node, or {@code null} if there is none
+         */
+        private final Entry getDescendant(final String path) {
+            Xpp3Dom descendant; // Nested node
+            Entry   previous;   // Entry stored by a concurrent call
+            Entry   result;
+
+            result = descendants.get(path);
+            if (result == null) {
+                descendant = node;
+                for (final String name : path.split("/")) {
+                    if (descendant != null) {
+                        descendant = descendant.getChild(name);
+                    }
+                }
+
+                if (descendant != null) {
+                    // Missing nodes are not stored, so only paths found are kept
+                    result = new Entry(null, null, descendant, null, null);
+                    previous = descendants.putIfAbsent(path, result);
+                    if (previous != null) {
+                        result = previous;
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Returns the node as JSON.
+         * <p>
+         * It is serialized on the first call, and then reused.
+         *
+         * @return the node as JSON
+         */
+        private final String getJson() {
+            String result;
+
+            result = json;
+            if (result == null) {
+                result = ConfigJsonWriter.toJson(node);
+                json = result;
+            }
+
+            return result;
+        }
+
+    }
+
+    /**
+     * Cache key comparing nodes, schemas and defaults by identity.
+     * <p>
+     * {@code Xpp3Dom} compares by contents, which requires traversing the full tree on each lookup.
+     */
+    private static final class NodeKey {
+
+        /**
+         * Defaults used as key.
+         */
+        private final ConfigDefaults defaults;
+
+        /**
+         * Node used as key.
+         */
+        private final Xpp3Dom        node;
+
+        /**
+         * Schema used as key.
+         */
+        private final ConfigSchema   schema;
+
+        /**
+         * Constructs a key for the node, schema and defaults.
+         *
+         * @param keyNode
+         *            node used as key
+         * @param keySchema
+         *            schema used as key
+         * @param keyDefaults
+         *            defaults used as key
+         */
+        private NodeKey(final Xpp3Dom keyNode, final ConfigSchema keySchema, final ConfigDefaults keyDefaults) {
+            super();
+
+            node = keyNode;
+            schema = keySchema;
+            defaults = keyDefaults;
+        }
+
+        @Override
+        public final boolean equals(final Object obj) {
+            return (obj instanceof NodeKey) && (((NodeKey) obj).node == node) && (((NodeKey) obj).schema == schema)
+                    && (((NodeKey) obj).defaults == defaults);
+        }
+
+        @Override
+        public final int hashCode() {
+            return (31 * ((31 * System.identityHashCode(node)) + System.identityHashCode(schema)))
+                    + System.identityHashCode(defaults);
+        }
+
+    }
+
+}
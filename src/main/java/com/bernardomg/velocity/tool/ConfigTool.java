@@ -24,8 +24,17 @@
 
 package com.bernardomg.velocity.tool;
 
-import java.util.Locale;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.maven.doxia.site.decoration.DecorationModel;
 import org.apache.velocity.tools.ToolContext;
@@ -55,27 +64,128 @@
  * This means that instead of using {@code $config.get("myproperty")}, the same value can be acquired with
  * {@code $config.myproperty}.
  * <p>
- * This tool is stateful, as it binds itself to the context and data of the page being rendered.
+ * The tool getters take precedence, so the {@code fileId}, {@code skinConfig}, {@code json} and {@code page} keys
+ * return the tool values instead. Configuration nodes with these names are acquired with {@code $config.get("json")}.
+ * <p>
+ * This tool is stateful, as it binds itself to the context and data of the page being rendered. So each instance
+ * should be used by a single page, as done by the request-scoped toolbox in {@code META-INF/maven/site-tools.xml}. The
+ * data shared between pages, such as the configuration snapshots and the rendered fragments, is thread-safe, so pages
+ * can be rendered in parallel. The setters are safe to call on an instance read by other threads, as the configuration
+ * is always replaced along with its snapshot.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  */
-@DefaultKey("config")
+@DefaultKey(ConfigToolKeys.CONFIG_TOOL)
 public final class ConfigTool extends SafeConfig {
 
+    /**
+     * Maximum number of defaults kept in the cache.
+     */
+    private static final int                                     DEFAULTS_CAPACITY      = 4;
+
+    /**
+     * Defaults cache, keyed by path and skin.
+     * <p>
+     * Defaults are read through the context class loader, like the schemas, so each skin has its own.
+     */
+    private static final BoundedCache<LoaderKey, ConfigDefaults> DEFAULTS               = new BoundedCache<>(
+        DEFAULTS_CAPACITY);
+
+    /**
+     * Maximum number of rendered fragments kept in the cache.
+     */
+    private static final int                                     FRAGMENT_CAPACITY      = 1024;
+
+    /**
+     * Rendered fragments cache.
+     * <p>
+     * It is shared by all the tool instances, as these are created for each page. Fragments are stored for each skin,
+     * so different skins can use the same names.
+     */
+    private static final BoundedCache<LoaderKey, String>         FRAGMENTS              = new BoundedCache<>(
+        FRAGMENT_CAPACITY);
+
+    /**
+     * Maximum number of file id manifests kept in the cache.
+     */
+    private static final int                                     MANIFEST_CAPACITY      = 4;
+
+    /**
+     * File id manifests cache, keyed by path, modification time and size.
+     * <p>
+     * A manifest written again after being read receives a new key, so it is read again.
+     */
+    private static final BoundedCache<String, FileIdManifest>    MANIFESTS              = new BoundedCache<>(
+        MANIFEST_CAPACITY);
+
+    /**
+     * Maximum number of page fragments kept in the cache.
+     * <p>
+     * These are reused only while rendering the same page, so there is no need to keep many of them.
+     */
+    private static final int                                     PAGE_FRAGMENT_CAPACITY = 256;
+
+    /**
+     * Rendered page fragments cache.
+     * <p>
+     * Kept apart from the site-wide fragments, so the many page fragments don't evict them.
+     */
+    private static final BoundedCache<LoaderKey, String>         PAGE_FRAGMENTS         = new BoundedCache<>(
+        PAGE_FRAGMENT_CAPACITY);
+
+    /**
+     * Maximum number of schemas kept in the cache.
+     */
+    private static final int                                     SCHEMA_CAPACITY        = 4;
+
+    /**
+     * Schemas cache, keyed by path and skin.
+     * <p>
+     * Schemas are read through the context class loader, which is the skin class loader, so the same path may give a
+     * different schema for each skin.
+     */
+    private static final BoundedCache<LoaderKey, ConfigSchema>   SCHEMAS                = new BoundedCache<>(
+        SCHEMA_CAPACITY);
+
+    /**
+     * Skin configuration node, along with its snapshot once acquired.
+     * <p>
+     * Both are replaced together, so a snapshot is never paired with another configuration, even if the configuration
+     * is set while another thread acquires the snapshot.
+     */
+    private final AtomicReference<Binding> binding       = new AtomicReference<>(new Binding(new Xpp3Dom(""), null));
+
+    /**
+     * Flag telling if the page is in the default locale.
+     */
+    private volatile boolean               defaultLocale = true;
+
+    /**
+     * Defaults merged into the skin configuration.
+     */
+    private volatile ConfigDefaults        defaults      = ConfigDefaults.NONE;
+
     /**
      * Identifier for the current file.
      * <p>
      * This is a slug created from the current file's name.
      */
-    private String  fileId;
+    private volatile String                fileId;
 
     /**
-     * Skin configuration node.
-     * <p>
-     * This contains the custom configuration for the skin, as set inside the site.xml file, inside the {@code <custom>}
-     * node.
+     * Precomputed file ids, used instead of generating them.
      */
-    private Xpp3Dom skinConfig = new Xpp3Dom("");
+    private FileIdManifest                 manifest;
+
+    /**
+     * Data derived from the current file name.
+     */
+    private volatile PageInfo              page          = PageInfo.EMPTY;
+
+    /**
+     * Schema applied to the skin configuration.
+     */
+    private volatile ConfigSchema          schema        = ConfigSchema.NONE;
 
     /**
      * Constructs an instance of the {@code ConfigTool}.
@@ -95,15 +205,74 @@ public ConfigTool() {
      * @return the value assigned to the property in the skin custom configuration
      */
     public final Xpp3Dom get(final String property) {
+        final Xpp3Dom node;
+
+        Objects.requireNonNull(property, "Received a null pointer as property");
+
+        node = getSnapshot().get(property);
+
+        ConfigToolLookupEvent.record(property, node != null);
+
+        return node;
+    }
+
+    /**
+     * Returns the attributes of the repeated children of a configuration's node.
+     * <p>
+     * Works like {@link #getChildren(String, String)}, but returns the attributes of each child, in the same order.
+     *
+     * @param property
+     *            the property being acquired, or the path to a nested node
+     * @param child
+     *            name of the children
+     * @return the attributes of the children, or an empty list if there are none
+     */
+    public final List<Map<String, String>> getAttributes(final String property, final String child) {
         Objects.requireNonNull(property, "Received a null pointer as property");
+        Objects.requireNonNull(child, "Received a null pointer as child");
 
-        return skinConfig.getChild(property);
+        return getSnapshot().getAttributes(property, child);
+    }
+
+    /**
+     * Returns the repeated children of a configuration's node.
+     * <p>
+     * This is meant for nodes containing lists, such as:
+     *
+     * <pre>
+     * {@code <links>
+     *   <link href="./index.html">Home</link>
+     *   <link href="./usage.html">Usage</link>
+     * </links>}
+     * </pre>
+     * <p>
+     * Which can be iterated with {@code #foreach( $link in $config.getChildren('links', 'link') )}.
+     * <p>
+     * Nested nodes are reached with a path, with the names separated by slashes, such as
+     * {@code $config.getChildren('topNav/menu', 'item')}. The first node with each name is followed.
+     * <p>
+     * Children are grouped once for each configuration, instead of being searched on each call like with
+     * {@link Xpp3Dom#getChildren(String)}. The returned list can't be modified.
+     *
+     * @param property
+     *            the property being acquired, or the path to a nested node
+     * @param child
+     *            name of the children
+     * @return the children with the received name, or an empty list if there are none
+     */
+    public final List<Xpp3Dom> getChildren(final String property, final String child) {
+        Objects.requireNonNull(property, "Received a null pointer as property");
+        Objects.requireNonNull(child, "Received a null pointer as child");
+
+        return getSnapshot().getChildren(property, child);
     }
 
     /**
      * Returns the file identifier.
      * <p>
-     * This is a slugged version of the current file name.
+     * This is a slugged version of the current file name, without the extension. Slashes, backslashes, dots,
+     * underscores and hyphens become a single hyphen when repeated, whitespaces become hyphens, any other character
+     * which is not a latin letter or digit is removed, and the result is lowercased.
      * <p>
      * With Velocity the value can be acquired by using the command {@code $config.fileId}.
      *
@@ -113,16 +282,171 @@ public final String getFileId() {
         return fileId;
     }
 
+    /**
+     * Returns the full skin configuration as a JSON object.
+     * <p>
+     * This is meant to be embedded into pages for client-side scripts. The JSON is generated only once for each
+     * configuration, and then reused for all the pages.
+     * <p>
+     * Nodes without children or attributes are stored as strings. Any other node is stored as an object, with
+     * attributes prefixed by {@code @}, the value, if any, as {@code #text}, and repeated children grouped into arrays.
+     * <p>
+     * With Velocity the value can be acquired by using the command {@code $config.json}. This hides any configuration
+     * node named {@code json}, which has to be acquired through {@link #get(String) get}.
+     *
+     * @return the skin configuration as JSON
+     */
+    public final String getJson() {
+        return getSnapshot().getJson();
+    }
+
+    /**
+     * Returns a configuration's node as JSON.
+     * <p>
+     * Works like {@link #getJson()}, but only for the node with the received name. If there is no node with a matching
+     * name then the returned value will be {@code null}.
+     *
+     * @param property
+     *            the property being acquired
+     * @return the node assigned to the property as JSON
+     */
+    public final String getJson(final String property) {
+        Objects.requireNonNull(property, "Received a null pointer as property");
+
+        return getSnapshot().getJson(property);
+    }
+
+    /**
+     * Returns the data derived from the current file name.
+     * <p>
+     * This contains the page location, such as the relative path to the site root or the breadcrumbs. These are
+     * computed when first used.
+     * <p>
+     * With Velocity the values can be acquired by using commands such as {@code $config.page.relativePath}. This hides
+     * any configuration node named {@code page}, which has to be acquired through {@link #get(String) get}.
+     *
+     * @return the current page data
+     */
+    public final PageInfo getPage() {
+        return page;
+    }
+
     /**
      * Returns the skin configuration node.
      * <p>
      * This contains the custom configuration for the skin, as set inside the site.xml file, inside the {@code <custom>}
      * node.
+     * <p>
+     * This is the configuration as received, without the skin defaults merged into it and without applying the
+     * schema. So it may lack default values, and contain values not coerced. The other methods, such as
+     * {@link #get(String) get}, {@link #getValue(String) getValue} or {@link #getJson() getJson}, read the merged and
+     * coerced configuration, and should be preferred.
      *
-     * @return the skin configuration node
+     * @return the skin configuration node, as received
      */
     public final Xpp3Dom getSkinConfig() {
-        return skinConfig;
+        return binding.get().config;
+    }
+
+    /**
+     * Returns the typed value of a configuration's node.
+     * <p>
+     * When the skin contains a configuration schema, the values are validated, coerced and defaulted before rendering,
+     * and for boolean and integer keys this returns a {@code Boolean} or an {@code Integer}. So templates can check the
+     * values directly:
+     *
+     * <pre>
+     * {@code #if( $config.getValue('enableSearch') )}
+     * </pre>
+     * <p>
+     * For any other key this returns the node value. If there is no node with a matching name then the returned value
+     * will be {@code null}.
+     *
+     * @param property
+     *            the property being acquired
+     * @return the typed value assigned to the property in the skin custom configuration
+     */
+    public final Object getValue(final String property) {
+        Objects.requireNonNull(property, "Received a null pointer as property");
+
+        return getSnapshot().getValue(property);
+    }
+
+    /**
+     * Indicates if a configuration flag is enabled.
+     * <p>
+     * A flag is enabled when its value is {@code true}, ignoring case. The decision is taken once for each skin
+     * configuration, and then reused for all the pages:
+     *
+     * <pre>
+     * {@code #if( $config.isEnabled('enableSearch') )}
+     * </pre>
+     * <p>
+     * This is also used by the {@link ConfigIfDirective}.
+     *
+     * @param property
+     *            name of the flag
+     * @return {@code true} if the flag is enabled, {@code false} otherwise
+     */
+    public final boolean isEnabled(final String property) {
+        Objects.requireNonNull(property, "Received a null pointer as property");
+
+        return getSnapshot().isEnabled(property);
+    }
+
+    /**
+     * Renders a fragment which only depends on the skin configuration.
+     * <p>
+     * The fragment is rendered once for each configuration, and then the output is reused for all the pages. This
+     * avoids evaluating again and again parts of the templates, such as navigation bars or footers, which are the same
+     * for the whole site.
+     * <p>
+     * The fragment should be a block created with Velocity's {@code #define} directive, which will be rendered when
+     * converted to a string:
+     *
+     * <pre>
+     * {@code #define($navbar)
+     *   ...
+     * #end
+     * $config.render('navbar', $navbar)}
+     * </pre>
+     * <p>
+     * The name identifies the fragment, and should be unique for each fragment. If the fragment depends on anything
+     * else than the skin configuration the cached output will be wrong.
+     * <p>
+     * Fragments are cached for each skin, but the names are shared by all the templates in the same skin. So when
+     * several templates define fragments, the names should include the template, such as {@code site.vm:navbar}.
+     *
+     * @param name
+     *            name identifying the fragment
+     * @param fragment
+     *            fragment to render
+     * @return the rendered fragment, or {@code null} if the fragment is {@code null}
+     */
+    public final String render(final String name, final Object fragment) {
+        Objects.requireNonNull(name, "Received a null pointer as name");
+
+        return renderCached(FRAGMENTS, getSnapshot().getFingerprint() + '\n' + name, fragment);
+    }
+
+    /**
+     * Renders a fragment which only depends on the skin configuration and the current page.
+     * <p>
+     * Works like {@link #render(String, Object)}, but the output is cached for each page, identified by the file name.
+     * This is meant for fragments used more than once in the same page.
+     *
+     * @param name
+     *            name identifying the fragment
+     * @param fragment
+     *            fragment to render
+     * @return the rendered fragment, or {@code null} if the fragment is {@code null}
+     */
+    public final String renderPage(final String name, final Object fragment) {
+        Objects.requireNonNull(name, "Received a null pointer as name");
+
+        // The file id is not used, as different file names may have the same id
+        return renderCached(PAGE_FRAGMENTS,
+            getSnapshot().getFingerprint() + '\n' + name + '\n' + page.getFileName(), fragment);
     }
 
     /**
@@ -147,46 +471,176 @@ public final void setFileId(final String id) {
      *            skin configuration node
      */
     public final void setSkinConfig(final Xpp3Dom config) {
-        skinConfig = config;
+        binding.set(new Binding(config, null));
     }
 
     /**
-     * Loads the file identifier from the velocity tools context.
+     * Returns the snapshot for the current skin configuration.
+     *
+     * @return the skin configuration snapshot
+     */
+    private final ConfigSnapshot getSnapshot() {
+        final Binding  current; // Configuration in use
+        ConfigSnapshot result;
+
+        current = binding.get();
+        result = current.snapshot;
+        if (result == null) {
+            result = ConfigSnapshot.of(current.config, schema, defaults, defaultLocale);
+            // Not stored if the configuration was replaced meanwhile
+            binding.compareAndSet(current, new Binding(current.config, result));
+        }
+
+        return result;
+    }
+
+    /**
+     * Loads the skin configuration defaults.
      * <p>
-     * This is generated from the file's name.
+     * The defaults path can be set as a tool property. Otherwise the default defaults, if the skin contains them, are
+     * used. Defaults are cached, so each one is read only once.
+     *
+     * @param values
+     *            the tool properties
+     */
+    private final void loadDefaults(final ValueParser values) {
+        final String path; // Defaults path
+
+        path = values.getString(ConfigToolKeys.DEFAULTS);
+        if (path == null) {
+            defaults = DEFAULTS.get(LoaderKey.of(ConfigToolKeys.DEFAULT_DEFAULTS),
+                k -> ConfigDefaults.load(ConfigToolKeys.DEFAULT_DEFAULTS, false));
+        } else {
+            defaults = DEFAULTS.get(LoaderKey.of(path), k -> ConfigDefaults.load(path, true));
+        }
+        binding.updateAndGet(b -> new Binding(b.config, null));
+    }
+
+    /**
+     * Loads the file identifier and the page data from the velocity tools context.
+     * <p>
+     * The file identifier is generated from the file's name, unless the file id manifest already contains it.
+     * <p>
+     * Both are acquired from the page data, which parses the file name in a single pass.
      *
      * @param context
      *            the Velocity tools context
      */
     private final void loadFileId(final ToolContext context) {
-        final Integer lastDot;
-        final Object  currentFileObj;
-        final String  id;
-        String        currentFile;
+        final Object currentFileObj;
+        final String currentFile;
+        String       id;
 
         if (context.containsKey(ConfigToolKeys.CURRENT_FILE_NAME)) {
             currentFileObj = context.get(ConfigToolKeys.CURRENT_FILE_NAME);
             if (currentFileObj == null) {
+                page = PageInfo.EMPTY;
                 id = "";
             } else {
                 currentFile = String.valueOf(currentFileObj);
+                page = new PageInfo(currentFile);
 
-                // Drops the extension
-                lastDot = currentFile.lastIndexOf('.');
-                if (lastDot >= 0) {
-                    currentFile = currentFile.substring(0, lastDot);
+                if (manifest == null) {
+                    id = null;
+                } else {
+                    id = manifest.getFileId(currentFile);
                 }
 
-                // File name is slugged
-                id = slug(currentFile);
+                if (id == null) {
+                    id = page.getFileId();
+                }
             }
         } else {
+            page = PageInfo.EMPTY;
             id = "";
         }
 
         fileId = id;
     }
 
+    /**
+     * Loads the page locale from the velocity tools context.
+     * <p>
+     * The page is taken as being in the default locale, which is the first of the supported locales, unless both the
+     * page locale and the supported locales are set, and they don't match. The snapshot for the default locale shares
+     * its unchanged data with the other locales.
+     *
+     * @param context
+     *            the Velocity tools context
+     */
+    private final void loadLocale(final ToolContext context) {
+        final Object locale;    // Page locale
+        final Object supported; // Locales supported by the site
+
+        locale = context.get(ConfigToolKeys.LOCALE);
+        supported = context.get(ConfigToolKeys.SUPPORTED_LOCALES);
+        if ((locale == null) || (!(supported instanceof List)) || ((List<?>) supported).isEmpty()) {
+            defaultLocale = true;
+        } else {
+            defaultLocale = locale.equals(((List<?>) supported).get(0));
+        }
+    }
+
+    /**
+     * Loads the file id manifest, if there is any.
+     * <p>
+     * The manifest may be set into the Velocity tools context, or its path may be set as a tool property. Relative
+     * paths are resolved against the project base directory, when the project is in the context. Manifests read from
+     * files are cached, and read again only if the file changes.
+     *
+     * @param values
+     *            the tool properties
+     * @param context
+     *            the Velocity tools context
+     */
+    private final void loadManifest(final ValueParser values, final ToolContext context) {
+        final Object        manifestObj; // Value of the manifest key
+        final String        property;    // Manifest path property
+        final Path          path;        // Resolved manifest path
+        BasicFileAttributes attributes;  // Manifest file attributes
+
+        manifestObj = context.get(ConfigToolKeys.FILE_ID_MANIFEST);
+        if (manifestObj instanceof FileIdManifest) {
+            manifest = (FileIdManifest) manifestObj;
+        } else {
+            property = values.getString(ConfigToolKeys.FILE_ID_MANIFEST);
+            if (property == null) {
+                manifest = null;
+            } else {
+                path = resolvePath(property, context);
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException("Failed reading file id manifest " + path, e);
+                }
+                manifest = MANIFESTS.get(path + "\n" + attributes.lastModifiedTime()
+                    .toMillis() + "\n" + attributes.size(), k -> readManifest(path));
+            }
+        }
+    }
+
+    /**
+     * Loads the skin configuration schema.
+     * <p>
+     * The schema path can be set as a tool property. Otherwise the default schema, if the skin contains it, is used.
+     * Schemas are cached, so each one is read only once.
+     *
+     * @param values
+     *            the tool properties
+     */
+    private final void loadSchema(final ValueParser values) {
+        final String path; // Schema path
+
+        path = values.getString(ConfigToolKeys.SCHEMA);
+        if (path == null) {
+            schema = SCHEMAS.get(LoaderKey.of(ConfigToolKeys.DEFAULT_SCHEMA),
+                k -> ConfigSchema.load(ConfigToolKeys.DEFAULT_SCHEMA, false));
+        } else {
+            schema = SCHEMAS.get(LoaderKey.of(path), k -> ConfigSchema.load(path, true));
+        }
+        binding.updateAndGet(b -> new Binding(b.config, null));
+    }
+
     /**
      * Processes the decoration model, acquiring the skin and page configuration.
      * <p>
@@ -211,52 +665,123 @@ private final void processDecoration(final DecorationModel model) {
             skinNode = customNode.getChild(ConfigToolKeys.SKIN);
 
             if (skinNode == null) {
-                skinConfig = new Xpp3Dom("");
+                setSkinConfig(new Xpp3Dom(""));
             } else {
-                skinConfig = skinNode;
+                setSkinConfig(skinNode);
             }
+
+            // The snapshot is acquired now, so any invalid configuration fails before rendering
+            getSnapshot();
         }
     }
 
     /**
-     * Returns a URL slug created from the received text.
+     * Returns the project base directory, if the project is in the Velocity tools context.
      * <p>
-     * A slug is a human-readable version of the text, where all the special characters have been removed, and spaces
-     * have been swapped by dashes.
+     * Maven Site sets the project into the context, and it is read through its {@code getBasedir} method, so the tool
+     * doesn't depend on the Maven classes.
+     *
+     * @param context
+     *            the Velocity tools context
+     * @return the project base directory, or {@code null} if it is not available
+     */
+    private static final Path getBaseDir(final ToolContext context) {
+        final Object project; // Value of the project key
+        Object       baseDir; // Project base directory
+        Path         result;
+
+        project = context.get(ConfigToolKeys.PROJECT);
+        if (project == null) {
+            baseDir = null;
+        } else {
+            try {
+                baseDir = project.getClass()
+                    .getMethod("getBasedir")
+                    .invoke(project);
+            } catch (final ReflectiveOperationException e) {
+                baseDir = null;
+            }
+        }
+
+        if (baseDir instanceof File) {
+            result = ((File) baseDir).toPath();
+        } else if (baseDir instanceof Path) {
+            result = (Path) baseDir;
+        } else {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the file id manifest from the received path.
+     *
+     * @param path
+     *            path to the manifest file
+     * @return the manifest read
+     */
+    private static final FileIdManifest readManifest(final Path path) {
+        try {
+            return FileIdManifest.read(path);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed reading file id manifest " + path, e);
+        }
+    }
+
+    /**
+     * Returns the absolute path for the received path.
      * <p>
-     * For example: <em>This, That & the Other! Various Outré Considerations</em> would become
-     * <em>this-that-the-other-various-outre-considerations</em>
+     * Relative paths are resolved against the project base directory, if it is available, or against the working
+     * directory otherwise.
+     *
+     * @param path
+     *            path to resolve
+     * @param context
+     *            the Velocity tools context
+     * @return the absolute path
+     */
+    private static final Path resolvePath(final String path, final ToolContext context) {
+        final Path baseDir; // Project base directory
+        Path       result;
+
+        result = Paths.get(path);
+        if (!result.isAbsolute()) {
+            baseDir = getBaseDir(context);
+            if (baseDir != null) {
+                result = baseDir.resolve(result);
+            }
+        }
+
+        return result.toAbsolutePath()
+            .normalize();
+    }
+
+    /**
+     * Returns the rendered fragment stored in the cache, rendering and storing it if missing.
      * <p>
-     * Of course, this can be applied to any text, not just URLs, but it is usually used in the context of an URL.
+     * The fragment is stored for the current skin.
      *
-     * @param text
-     *            text to generate the slug from
-     * @return the slug of the given text
-     */
-    private final String slug(final String text) {
-        final String separator; // Separator for swapping whitespaces
-        String       corrected; // Modified string
-
-        Objects.requireNonNull(text, "Received a null pointer as the text");
-
-        separator = "-";
-
-        corrected = text.replace('/', '-')
-            .replace('\\', '-')
-            .replace('.', '-')
-            .replace('_', '-');
-
-        // Removes multiple lines
-        corrected = ConfigToolRegex.MULTIPLE_HYPHEN.matcher(corrected)
-            .replaceAll(separator);
-        // Removes white spaces
-        corrected = ConfigToolRegex.WHITESPACE.matcher(corrected)
-            .replaceAll(separator);
-        // Removes non-latin characters
-        corrected = ConfigToolRegex.NON_LATIN.matcher(corrected)
-            .replaceAll("");
-
-        return corrected.toLowerCase(Locale.getDefault());
+     * @param cache
+     *            cache for the fragment
+     * @param key
+     *            cache key for the fragment
+     * @param fragment
+     *            fragment to render
+     * @return the rendered fragment, or {@code null} if the fragment is {@code null}
+     */
+    private final String renderCached(final BoundedCache<LoaderKey, String> cache, final String key,
+            final Object fragment) {
+        final String rendered;
+
+        if (fragment == null) {
+            rendered = null;
+        } else {
+            // Velocity blocks are rendered when transformed into strings
+            rendered = cache.get(LoaderKey.of(key), k -> String.valueOf(fragment));
+        }
+
+        return rendered;
     }
 
     /**
@@ -264,24 +789,75 @@ private final String slug(final String text) {
      */
     @Override
     protected final void configure(final ValueParser values) {
-        final Object      velocityContext; // Value from the parser
-        final ToolContext ctxt;            // Casted context
-        final Object      decorationObj;   // Value of the decoration key
+        final ConfigToolConfigureEvent event;           // Flight Recorder event
+        final Object                   velocityContext; // Value from the parser
+        final ToolContext              ctxt;            // Casted context
+        final Object                   decorationObj;   // Value of the decoration key
 
         Objects.requireNonNull(values, "Received a null pointer as values");
 
+        event = new ConfigToolConfigureEvent();
+        event.begin();
+
         velocityContext = values.get(ConfigToolKeys.VELOCITY_CONTEXT);
 
         if (velocityContext instanceof ToolContext) {
             ctxt = (ToolContext) velocityContext;
 
+            loadManifest(values, ctxt);
             loadFileId(ctxt);
+            loadLocale(ctxt);
+            loadSchema(values);
+            loadDefaults(values);
 
             decorationObj = ctxt.get(ConfigToolKeys.DECORATION);
             if (decorationObj instanceof DecorationModel) {
                 processDecoration((DecorationModel) decorationObj);
             }
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.fileId = fileId;
+            event.commit();
+        }
+    }
+
+    /**
+     * Skin configuration node, along with the snapshot for it.
+     */
+    private static final class Binding {
+
+        /**
+         * Skin configuration node.
+         * <p>
+         * This contains the custom configuration for the skin, as set inside the site.xml file, inside the
+         * {@code <custom>} node.
+         */
+        private final Xpp3Dom        config;
+
+        /**
+         * Snapshot for the skin configuration, or {@code null} if not acquired yet.
+         * <p>
+         * It is shared by all the pages using the same configuration, and is acquired only when required.
+         */
+        private final ConfigSnapshot snapshot;
+
+        /**
+         * Constructs a binding for the configuration.
+         *
+         * @param skinConfig
+         *            skin configuration node
+         * @param configSnapshot
+         *            snapshot for the configuration, may be {@code null}
+         */
+        private Binding(final Xpp3Dom skinConfig, final ConfigSnapshot configSnapshot) {
+            super();
+
+            config = skinConfig;
+            snapshot = configSnapshot;
+        }
+
     }
 
 }
@@ -0,0 +1,69 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for each time the tool is set up for a page.
+ * <p>
+ * It is disabled by default, and should be enabled in the recording settings, with the
+ * {@code com.bernardomg.velocity.tool.Configure} name. When not enabled, it costs close to nothing.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Name(ConfigToolConfigureEvent.NAME)
+@Label("Config Tool Configure")
+@Category({ "Velocity", "Config Tool" })
+@Description("Sets up the config tool for a page")
+@Enabled(false)
+@StackTrace(false)
+final class ConfigToolConfigureEvent extends Event {
+
+    /**
+     * Event name.
+     */
+    static final String NAME = "com.bernardomg.velocity.tool.Configure";
+
+    /**
+     * Identifier of the page being set up.
+     */
+    @Label("File Id")
+    String              fileId;
+
+    /**
+     * Default constructor.
+     */
+    ConfigToolConfigureEvent() {
+        super();
+    }
+
+}
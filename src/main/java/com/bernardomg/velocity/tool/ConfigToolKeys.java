@@ -36,6 +36,11 @@
  */
 public final class ConfigToolKeys {
 
+    /**
+     * The key identifying the config tool in the velocity context.
+     */
+    public static final String CONFIG_TOOL       = "config";
+
     /**
      * The key identifying the current file name in the velocity context.
      */
@@ -46,6 +51,54 @@ public final class ConfigToolKeys {
      */
     public static final String DECORATION        = "decoration";
 
+    /**
+     * Default path to the skin configuration defaults.
+     * <p>
+     * This is a classpath resource, which skins may include next to the {@code META-INF/maven/site-tools.xml} file.
+     */
+    public static final String DEFAULT_DEFAULTS  = "META-INF/maven/skin-config-defaults.xml";
+
+    /**
+     * Default path to the skin configuration schema.
+     * <p>
+     * This is a classpath resource, which skins may include next to the {@code META-INF/maven/site-tools.xml} file.
+     */
+    public static final String DEFAULT_SCHEMA    = "META-INF/maven/skin-config-schema.xml";
+
+    /**
+     * The key identifying the skin configuration defaults path in the tool properties.
+     * <p>
+     * When not set the {@link #DEFAULT_DEFAULTS} are used, if they exist.
+     */
+    public static final String DEFAULTS          = "defaults";
+
+    /**
+     * The key identifying the file id manifest.
+     * <p>
+     * This may be set in the velocity context, containing a {@link FileIdManifest}, or as a tool property, containing
+     * the path to a manifest file, relative to the project base directory.
+     */
+    public static final String FILE_ID_MANIFEST  = "fileIdManifest";
+
+    /**
+     * The key identifying the page locale in the velocity context.
+     */
+    public static final String LOCALE            = "locale";
+
+    /**
+     * The key identifying the Maven project in the velocity context.
+     * <p>
+     * Its base directory is used to resolve relative paths.
+     */
+    public static final String PROJECT           = "project";
+
+    /**
+     * The key identifying the skin configuration schema path in the tool properties.
+     * <p>
+     * When not set the {@link #DEFAULT_SCHEMA} is used, if it exists.
+     */
+    public static final String SCHEMA            = "schema";
+
     /**
      * Key for the skin configuration.
      * <p>
@@ -65,6 +118,13 @@ public final class ConfigToolKeys {
      */
     public static final String SKIN              = "skinConfig";
 
+    /**
+     * The key identifying the locales supported by the site in the velocity context.
+     * <p>
+     * The first one is the default locale.
+     */
+    public static final String SUPPORTED_LOCALES = "supportedLocales";
+
     /**
      * The key identifying the velocity context.
      */
@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for configuration lookups.
+ * <p>
+ * Lookups are too frequent to record all of them, so only a sample of them, one of each {@link #SAMPLING}, is
+ * recorded.
+ * <p>
+ * It is disabled by default, and should be enabled in the recording settings, with the
+ * {@code com.bernardomg.velocity.tool.Lookup} name. When not enabled, it costs close to nothing.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+@Name(ConfigToolLookupEvent.NAME)
+@Label("Config Tool Lookup")
+@Category({ "Velocity", "Config Tool" })
+@Description("Sampled configuration lookup")
+@Enabled(false)
+@StackTrace(false)
+final class ConfigToolLookupEvent extends Event {
+
+    /**
+     * Event name.
+     */
+    static final String NAME     = "com.bernardomg.velocity.tool.Lookup";
+
+    /**
+     * Only one of each of these lookups is recorded.
+     */
+    static final int    SAMPLING = 16;
+
+    /**
+     * Flag telling if the key was found.
+     */
+    @Label("Hit")
+    boolean             hit;
+
+    /**
+     * Key looked up.
+     */
+    @Label("Key")
+    String              key;
+
+    /**
+     * Default constructor.
+     */
+    ConfigToolLookupEvent() {
+        super();
+    }
+
+    /**
+     * Records the lookup, if the event is enabled and the lookup is chosen for the sample.
+     *
+     * @param key
+     *            key looked up
+     * @param hit
+     *            flag telling if the key was found
+     */
+    static final void record(final String key, final boolean hit) {
+        final ConfigToolLookupEvent event;
+
+        event = new ConfigToolLookupEvent();
+        // Random sampling avoids sharing a counter between threads
+        if (event.isEnabled() && (ThreadLocalRandom.current()
+            .nextInt(SAMPLING) == 0)) {
+            event.key = key;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+}
@@ -28,9 +28,15 @@
 
 /**
  * Constants for regular expressions used by the configuration tool.
+ * <p>
+ * These were used for generating the file ids. The ids are now generated reading the file name one character at a
+ * time, without regular expressions, so these are no longer used. The rules are the same, and are described in
+ * {@link ConfigTool#getFileId()}.
  *
  * @author Bernardo Mart&iacute;nez Garrido
+ * @deprecated the tool no longer uses regular expressions, this will be removed in a future version
  */
+@Deprecated
 public final class ConfigToolRegex {
 
     /**
@@ -0,0 +1,356 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Precomputed file identifiers for a set of files.
+ * <p>
+ * File ids are generated in parallel, with the same rules used by {@link ConfigTool#getFileId()}, so they can be
+ * computed for the whole site before rendering it, for example to build link maps or sitemaps.
+ * <p>
+ * The manifest can be written to a file and read back. It can be handed to the tool, which will then take the file
+ * ids from it instead of generating them again, either by setting the manifest into the Velocity context or by setting
+ * the manifest path as the tool property, both under the {@link ConfigToolKeys#FILE_ID_MANIFEST} key.
+ * <p>
+ * The written manifest contains a line for each file, with the file id and the file name separated by a tab. Any
+ * backslash, tab or line break inside them is escaped as {@code \\}, {@code \t}, {@code \r} or {@code \n}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class FileIdManifest {
+
+    /**
+     * Escape character in the written manifest.
+     */
+    private static final char         ESCAPE    = '\\';
+
+    /**
+     * Separator between the file id and the file name in the written manifest.
+     */
+    private static final char         SEPARATOR = '\t';
+
+    /**
+     * File ids, keyed by file name.
+     */
+    private final Map<String, String> fileIds;
+
+    /**
+     * Constructs a manifest with the received file ids.
+     *
+     * @param ids
+     *            file ids, keyed by file name
+     */
+    private FileIdManifest(final Map<String, String> ids) {
+        super();
+
+        fileIds = Collections.unmodifiableMap(new TreeMap<>(ids));
+    }
+
+    /**
+     * Computes the file ids for the received files, in parallel.
+     * <p>
+     * This makes use of the common fork-join pool. Null and repeated file names are ignored.
+     *
+     * @param files
+     *            file names
+     * @return the manifest with the file ids
+     */
+    public static final FileIdManifest compute(final Collection<String> files) {
+        Objects.requireNonNull(files, "Received a null pointer as files");
+
+        return compute(files.stream());
+    }
+
+    /**
+     * Computes the file ids for the received files, in parallel, with the received fork-join pool.
+     * <p>
+     * Null and repeated file names are ignored.
+     *
+     * @param files
+     *            file names
+     * @param pool
+     *            pool running the computation
+     * @return the manifest with the file ids
+     */
+    public static final FileIdManifest compute(final Collection<String> files, final ForkJoinPool pool) {
+        Objects.requireNonNull(files, "Received a null pointer as files");
+        Objects.requireNonNull(pool, "Received a null pointer as pool");
+
+        // Parallel streams run in the pool they are called from
+        return pool.submit(() -> compute(files.stream()))
+            .join();
+    }
+
+    /**
+     * Computes the file ids for the received files, in parallel.
+     * <p>
+     * This makes use of the common fork-join pool, unless called from inside another pool. Null and repeated file names
+     * are ignored.
+     *
+     * @param files
+     *            file names
+     * @return the manifest with the file ids
+     */
+    public static final FileIdManifest compute(final Stream<String> files) {
+        final ConcurrentMap<String, String> ids;
+
+        Objects.requireNonNull(files, "Received a null pointer as files");
+
+        ids = files.parallel()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toConcurrentMap(Function.identity(), FileIds::fromFileName, (a, b) -> a));
+
+        return new FileIdManifest(ids);
+    }
+
+    /**
+     * Reads a manifest from a file.
+     *
+     * @param path
+     *            path to the manifest file
+     * @return the manifest read
+     * @throws IOException
+     *             if the file can't be read
+     */
+    public static final FileIdManifest read(final Path path) throws IOException {
+        Objects.requireNonNull(path, "Received a null pointer as path");
+
+        try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads a manifest.
+     *
+     * @param reader
+     *            reader with the manifest contents
+     * @return the manifest read
+     * @throws IOException
+     *             if the manifest can't be read, or is malformed
+     */
+    public static final FileIdManifest read(final Reader reader) throws IOException {
+        final Map<String, String> ids;
+        final BufferedReader      lines;
+        String                    line;
+        int                       separator;
+
+        Objects.requireNonNull(reader, "Received a null pointer as reader");
+
+        ids = new TreeMap<>();
+        lines = new BufferedReader(reader);
+        line = lines.readLine();
+        while (line != null) {
+            if (!line.isEmpty()) {
+                separator = line.indexOf(SEPARATOR);
+                if (separator < 0) {
+                    throw new IOException("Malformed manifest line: " + line);
+                }
+                // Tabs inside the values are escaped, so the first one is the separator
+                ids.put(unescape(line.substring(separator + 1)), unescape(line.substring(0, separator)));
+            }
+            line = lines.readLine();
+        }
+
+        return new FileIdManifest(ids);
+    }
+
+    /**
+     * Returns the text with the escape character, the separator and the line breaks escaped.
+     *
+     * @param text
+     *            text to escape
+     * @return the escaped text
+     */
+    private static final String escape(final String text) {
+        final StringBuilder escaped;
+        char                character;
+
+        escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            character = text.charAt(i);
+            switch (character) {
+                case ESCAPE:
+                    escaped.append(ESCAPE)
+                        .append(ESCAPE);
+                    break;
+                case SEPARATOR:
+                    escaped.append(ESCAPE)
+                        .append('t');
+                    break;
+                case '\n':
+                    escaped.append(ESCAPE)
+                        .append('n');
+                    break;
+                case '\r':
+                    escaped.append(ESCAPE)
+                        .append('r');
+                    break;
+                default:
+                    escaped.append(character);
+            }
+        }
+
+        return escaped.toString();
+    }
+
+    /**
+     * Returns the text with the escaped characters restored.
+     *
+     * @param text
+     *            text to unescape
+     * @return the unescaped text
+     * @throws IOException
+     *             if the text contains an unknown or incomplete escape sequence
+     */
+    private static final String unescape(final String text) throws IOException {
+        final StringBuilder unescaped;
+        boolean             escaping;
+
+        unescaped = new StringBuilder(text.length());
+        escaping = false;
+        for (final char character : text.toCharArray()) {
+            if (escaping) {
+                switch (character) {
+                    case ESCAPE:
+                        unescaped.append(ESCAPE);
+                        break;
+                    case 't':
+                        unescaped.append(SEPARATOR);
+                        break;
+                    case 'n':
+                        unescaped.append('\n');
+                        break;
+                    case 'r':
+                        unescaped.append('\r');
+                        break;
+                    default:
+                        throw new IOException("Unknown escape sequence in manifest value: " + text);
+                }
+                escaping = false;
+            } else if (character == ESCAPE) {
+                escaping = true;
+            } else {
+                unescaped.append(character);
+            }
+        }
+
+        if (escaping) {
+            throw new IOException("Incomplete escape sequence in manifest value: " + text);
+        }
+
+        return unescaped.toString();
+    }
+
+    /**
+     * Returns the file id for the file name.
+     *
+     * @param fileName
+     *            file name
+     * @return the file id for the file name, or {@code null} if it is not in the manifest
+     */
+    public final String getFileId(final String fileName) {
+        Objects.requireNonNull(fileName, "Received a null pointer as file name");
+
+        return fileIds.get(fileName);
+    }
+
+    /**
+     * Returns all the file ids, keyed by file name.
+     * <p>
+     * The returned map is sorted by file name, and can't be modified.
+     *
+     * @return all the file ids
+     */
+    public final Map<String, String> getFileIds() {
+        return fileIds;
+    }
+
+    /**
+     * Returns the number of files in the manifest.
+     *
+     * @return the number of files
+     */
+    public final int size() {
+        return fileIds.size();
+    }
+
+    /**
+     * Writes the manifest to a file.
+     *
+     * @param path
+     *            path to the manifest file
+     * @throws IOException
+     *             if the file can't be written
+     */
+    public final void write(final Path path) throws IOException {
+        Objects.requireNonNull(path, "Received a null pointer as path");
+
+        try (final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(writer);
+        }
+    }
+
+    /**
+     * Writes the manifest.
+     * <p>
+     * Files are written sorted by name, so the same files always give the same manifest.
+     *
+     * @param writer
+     *            writer for the manifest contents
+     * @throws IOException
+     *             if the manifest can't be written
+     */
+    public final void write(final Writer writer) throws IOException {
+        Objects.requireNonNull(writer, "Received a null pointer as writer");
+
+        for (final Map.Entry<String, String> entry : fileIds.entrySet()) {
+            writer.append(escape(entry.getValue()))
+                .append(SEPARATOR)
+                .append(escape(entry.getKey()))
+                .append('\n');
+        }
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Generates file identifiers from file names.
+ * <p>
+ * This is shared by the tool and the file id manifest, so both generate the same ids. The slug is built one character
+ * at a time, so the page data can generate the id while splitting the file name.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class FileIds {
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private FileIds() {
+        super();
+    }
+
+    /**
+     * Appends a character of the text being slugged, following the rules of {@link #slug(String) slug}.
+     * <p>
+     * This allows slugging a text while it is read, without going through it again. Separators, which are hyphens,
+     * dots, underscores and slashes, become a single hyphen when repeated, whitespaces become hyphens, and any other
+     * character which is not a latin letter or digit is removed.
+     * <p>
+     * The slug should be lowercased once all the characters are appended.
+     *
+     * @param slug
+     *            slug being built
+     * @param character
+     *            character to append
+     * @param separator
+     *            flag telling if the previous character was a separator
+     * @return {@code true} if the character is a separator, {@code false} otherwise
+     */
+    static final boolean appendSlug(final StringBuilder slug, final char character, final boolean separator) {
+        final boolean result;
+
+        if ((character == '-') || (character == '.') || (character == '_') || (character == '/')
+                || (character == '\\')) {
+            // Consecutive separators become a single hyphen
+            if (!separator) {
+                slug.append('-');
+            }
+            result = true;
+        } else {
+            if (isWhitespace(character)) {
+                slug.append('-');
+            } else if (isLatin(character)) {
+                slug.append(character);
+            }
+            // Removed characters still split separators, as whitespaces do
+            result = false;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the file identifier for the file name.
+     * <p>
+     * This is a slugged version of the file name, without the extension.
+     *
+     * @param fileName
+     *            file name to transform
+     * @return the file identifier
+     */
+    static final String fromFileName(final String fileName) {
+        final StringBuilder id;        // File id being built
+        int                 end;       // Length of the id before the extension
+        boolean             separator; // Flag telling if the last character was a separator
+
+        Objects.requireNonNull(fileName, "Received a null pointer as file name");
+
+        id = new StringBuilder(fileName.length());
+        end = -1;
+        separator = false;
+        for (int i = 0; i < fileName.length(); i++) {
+            if (fileName.charAt(i) == '.') {
+                // Drops the extension, which begins at the last dot
+                end = id.length();
+            }
+            separator = appendSlug(id, fileName.charAt(i), separator);
+        }
+
+        if (end >= 0) {
+            id.setLength(end);
+        }
+
+        return id.toString()
+            .toLowerCase(Locale.getDefault());
+    }
+
+    /**
+     * Returns a URL slug created from the received text.
+     * <p>
+     * A slug is a human-readable version of the text, where all the special characters have been removed, and spaces
+     * have been swapped by dashes.
+     * <p>
+     * For example: <em>This, That & the Other! Various Outré Considerations</em> would become
+     * <em>this-that-the-other-various-outre-considerations</em>
+     * <p>
+     * Of course, this can be applied to any text, not just URLs, but it is usually used in the context of an URL.
+     *
+     * @param text
+     *            text to generate the slug from
+     * @return the slug of the given text
+     */
+    static final String slug(final String text) {
+        final StringBuilder corrected; // Slug being built
+        boolean             separator; // Flag telling if the last character was a separator
+
+        Objects.requireNonNull(text, "Received a null pointer as the text");
+
+        corrected = new StringBuilder(text.length());
+        separator = false;
+        for (int i = 0; i < text.length(); i++) {
+            separator = appendSlug(corrected, text.charAt(i), separator);
+        }
+
+        return corrected.toString()
+            .toLowerCase(Locale.getDefault());
+    }
+
+    /**
+     * Indicates if the character is a latin letter or a digit.
+     *
+     * @param character
+     *            character to check
+     * @return {@code true} if the character is a latin letter or a digit, {@code false} otherwise
+     */
+    private static final boolean isLatin(final char character) {
+        return ((character >= 'a') && (character <= 'z')) || ((character >= 'A') && (character <= 'Z'))
+                || ((character >= '0') && (character <= '9'));
+    }
+
+    /**
+     * Indicates if the character is a whitespace, as the {@code \s} regex class.
+     *
+     * @param character
+     *            character to check
+     * @return {@code true} if the character is a whitespace, {@code false} otherwise
+     */
+    private static final boolean isWhitespace(final char character) {
+        return (character == ' ') || (character == '\t') || (character == '\n') || (character == '\u000B')
+                || (character == '\f') || (character == '\r');
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+
+/**
+ * Cache key for data which depends on the skin being used.
+ * <p>
+ * Maven Site sets the context class loader to the skin class loader while rendering, and a single JVM may render
+ * sites with different skins, such as in a reactor build. So anything read from the skin resources, or rendered from
+ * its templates, is stored along the class loader.
+ * <p>
+ * The class loader is weakly referenced, so the cache doesn't keep discarded skins in memory. A key whose class loader
+ * has been collected won't be equal to any other key, and will be evicted in time.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class LoaderKey {
+
+    /**
+     * Precomputed hash code.
+     */
+    private final int                        hash;
+
+    /**
+     * Class loader used as scope.
+     */
+    private final WeakReference<ClassLoader> loader;
+
+    /**
+     * Name inside the scope.
+     */
+    private final String                     name;
+
+    /**
+     * Constructs a key for the name inside the class loader scope.
+     *
+     * @param keyLoader
+     *            class loader used as scope
+     * @param keyName
+     *            name inside the scope
+     */
+    LoaderKey(final ClassLoader keyLoader, final String keyName) {
+        super();
+
+        loader = new WeakReference<>(Objects.requireNonNull(keyLoader, "Received a null pointer as loader"));
+        name = Objects.requireNonNull(keyName, "Received a null pointer as name");
+        hash = (31 * System.identityHashCode(keyLoader)) + keyName.hashCode();
+    }
+
+    /**
+     * Returns a key for the name inside the scope of the current skin.
+     *
+     * @param name
+     *            name inside the scope
+     * @return a key for the name in the current skin
+     */
+    static final LoaderKey of(final String name) {
+        return new LoaderKey(ConfigResources.getClassLoader(), name);
+    }
+
+    @Override
+    public final boolean equals(final Object obj) {
+        final boolean     equal;
+        final LoaderKey   other;
+        final ClassLoader scope;
+
+        if (this == obj) {
+            equal = true;
+        } else if (obj instanceof LoaderKey) {
+            other = (LoaderKey) obj;
+            scope = loader.get();
+            equal = (hash == other.hash) && (scope != null) && (scope == other.loader.get())
+                    && name.equals(other.name);
+        } else {
+            equal = false;
+        }
+
+        return equal;
+    }
+
+    @Override
+    public final int hashCode() {
+        return hash;
+    }
+
+}
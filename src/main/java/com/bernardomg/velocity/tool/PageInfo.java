@@ -0,0 +1,298 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Data derived from the current page file name.
+ * <p>
+ * Templates usually need the page location, to create relative links, mark the current section or show breadcrumbs.
+ * Instead of manipulating the file name in Velocity again and again, the file name is parsed once, and the derived
+ * values are computed when first requested and then stored.
+ * <p>
+ * Both slashes and backslashes are accepted as separators. For example, for {@code guide/setup/install.html}:
+ * <ul>
+ * <li>The depth is 2</li>
+ * <li>The relative path is {@code ../..}</li>
+ * <li>The section is {@code setup}</li>
+ * <li>The breadcrumbs are {@code guide}, {@code setup} and {@code install}</li>
+ * </ul>
+ * <p>
+ * Instances are immutable, other than the lazily computed values. They are cheap to create, so each page receives its
+ * own.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class PageInfo {
+
+    /**
+     * Data for pages without file name.
+     */
+    static final PageInfo         EMPTY = new PageInfo("");
+
+    /**
+     * Cached breadcrumb segments.
+     */
+    private volatile List<String> breadcrumbs;
+
+    /**
+     * Directories containing the page, from the root.
+     */
+    private final List<String>    directories;
+
+    /**
+     * File identifier generated from the file name.
+     */
+    private final String          fileId;
+
+    /**
+     * Page file name, including the path.
+     */
+    private final String          fileName;
+
+    /**
+     * Page name, without path.
+     */
+    private final String          name;
+
+    /**
+     * Cached relative path to the site root.
+     */
+    private volatile String       relativePath;
+
+    /**
+     * Cached section slug.
+     */
+    private volatile String       section;
+
+    /**
+     * Constructs the data for the file name.
+     * <p>
+     * The file name is split into segments in a single pass, which also generates the file identifier, with the same
+     * rules as {@link FileIds#fromFileName(String)}. Empty and {@code .} segments are ignored.
+     *
+     * @param file
+     *            page file name
+     */
+    PageInfo(final String file) {
+        super();
+
+        final List<String>  segments;  // Path segments
+        final StringBuilder id;        // File id being built
+        int                 start;     // Start of the current segment
+        int                 end;       // Length of the id before the extension
+        boolean             separator; // Flag telling if the last character was a slug separator
+        char                current;   // Current character
+        String              segment;   // Current segment
+
+        fileName = Objects.requireNonNull(file, "Received a null pointer as file name");
+
+        segments = new ArrayList<>();
+        id = new StringBuilder(fileName.length());
+        start = 0;
+        end = -1;
+        separator = false;
+        for (int i = 0; i <= fileName.length(); i++) {
+            if (i == fileName.length()) {
+                // The end of the name closes the last segment
+                current = '/';
+            } else {
+                current = fileName.charAt(i);
+                if (current == '.') {
+                    // Drops the extension, which begins at the last dot
+                    end = id.length();
+                }
+                separator = FileIds.appendSlug(id, current, separator);
+            }
+
+            if ((current == '/') || (current == '\\')) {
+                segment = fileName.substring(start, i);
+                if (!segment.isEmpty() && !".".equals(segment)) {
+                    segments.add(segment);
+                }
+                start = i + 1;
+            }
+        }
+
+        if (segments.isEmpty()) {
+            name = "";
+            directories = Collections.emptyList();
+        } else {
+            name = segments.remove(segments.size() - 1);
+            directories = Collections.unmodifiableList(segments);
+        }
+
+        if (end >= 0) {
+            id.setLength(end);
+        }
+        fileId = id.toString()
+            .toLowerCase(Locale.getDefault());
+    }
+
+    /**
+     * Returns the breadcrumb segments for the page.
+     * <p>
+     * These are the directories containing the page, followed by the page name without extension.
+     *
+     * @return the breadcrumb segments
+     */
+    public final List<String> getBreadcrumbs() {
+        final List<String> segments; // Breadcrumb segments
+        List<String>       result;
+
+        result = breadcrumbs;
+        if (result == null) {
+            segments = new ArrayList<>(directories);
+            if (!name.isEmpty()) {
+                segments.add(removeExtension(name));
+            }
+            result = Collections.unmodifiableList(segments);
+            breadcrumbs = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of directories containing the page.
+     * <p>
+     * Pages at the site root have a depth of 0.
+     *
+     * @return the page depth
+     */
+    public final int getDepth() {
+        return directories.size();
+    }
+
+    /**
+     * Returns the directories containing the page, from the root.
+     *
+     * @return the directories containing the page
+     */
+    public final List<String> getDirectories() {
+        return directories;
+    }
+
+    /**
+     * Returns the page file name, including the path.
+     *
+     * @return the page file name
+     */
+    public final String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns the relative path from the page to the site root.
+     * <p>
+     * This is {@code .} for pages at the root, and {@code ..} for each directory otherwise, such as {@code ../..}.
+     *
+     * @return the relative path to the site root
+     */
+    public final String getRelativePath() {
+        final StringBuilder path; // Path being built
+        String              result;
+
+        result = relativePath;
+        if (result == null) {
+            if (directories.isEmpty()) {
+                result = ".";
+            } else {
+                path = new StringBuilder("..");
+                for (int i = 1; i < directories.size(); i++) {
+                    path.append("/..");
+                }
+                result = path.toString();
+            }
+            relativePath = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the slug for the section containing the page.
+     * <p>
+     * This is the slugged name of the directory containing the page, or an empty string for pages at the root.
+     *
+     * @return the section slug
+     */
+    public final String getSection() {
+        String result;
+
+        result = section;
+        if (result == null) {
+            if (directories.isEmpty()) {
+                result = "";
+            } else {
+                result = FileIds.slug(directories.get(directories.size() - 1));
+            }
+            section = result;
+        }
+
+        return result;
+    }
+
+    @Override
+    public final String toString() {
+        return fileName;
+    }
+
+    /**
+     * Returns the file identifier generated from the file name.
+     *
+     * @return the file identifier
+     */
+    final String getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Returns the received name without its extension.
+     *
+     * @param fileName
+     *            name to transform
+     * @return the name without extension
+     */
+    private static final String removeExtension(final String fileName) {
+        final int    lastDot;
+        final String result;
+
+        lastDot = fileName.lastIndexOf('.');
+        if (lastDot >= 0) {
+            result = fileName.substring(0, lastDot);
+        } else {
+            result = fileName;
+        }
+
+        return result;
+    }
+
+}
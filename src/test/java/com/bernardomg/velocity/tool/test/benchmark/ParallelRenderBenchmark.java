@@ -0,0 +1,374 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.benchmark;
+
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.tools.ToolContext;
+import org.apache.velocity.tools.ToolManager;
+
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+import com.bernardomg.velocity.tool.FileIdManifest;
+
+/**
+ * Parallel site rendering benchmark and concurrency stress harness.
+ * <p>
+ * Renders the synthetic skin template for many pages concurrently, through the same toolbox used by Maven Site, with
+ * an increasing number of threads. Pages alternate between two decoration models, as in a multi-locale site.
+ * <p>
+ * Every rendered page is checked to contain its own title and file id, so any configuration or file id leaking
+ * between pages makes the run fail.
+ * <p>
+ * For each number of threads it reports the throughput, the speedup over a single thread, and the scaling efficiency,
+ * which is the speedup divided by the number of threads. It runs with platform threads, and also with virtual threads
+ * when the JVM supports them. It can be configured through these system properties:
+ * <ul>
+ * <li>{@code benchmark.pages}: number of pages, by default {@code 20000}</li>
+ * <li>{@code benchmark.threads}: comma-separated thread counts, by default powers of two up to twice the number of
+ * processors</li>
+ * <li>{@code benchmark.width}: number of skin configuration entries, by default {@code 100}</li>
+ * </ul>
+ * It can be run with the {@code benchmark} profile: {@code mvn verify -Pbenchmark -DskipTests}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class ParallelRenderBenchmark {
+
+    /**
+     * Title for the default locale.
+     */
+    private static final String DEFAULT_TITLE = "Synthetic site";
+
+    /**
+     * Title for the second locale.
+     */
+    private static final String LOCALE_TITLE  = "Sitio sintético";
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private ParallelRenderBenchmark() {
+        super();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     * @throws Exception
+     *             if the rendering fails
+     */
+    public static final void main(final String[] args) throws Exception {
+        final int               pageCount;
+        final int               width;
+        final int[]             threadCounts;
+        final String[]          files;
+        final FileIdManifest    expected;
+        final DecorationModel[] decorations;
+        final VelocityEngine    engine;
+        final ToolManager       tools;
+        final Template          template;
+        final Method            virtualFactory;
+        final Renderer          renderer;
+        double                  baseline;
+
+        pageCount = Integer.parseInt(System.getProperty("benchmark.pages", "20000"));
+        width = Integer.parseInt(System.getProperty("benchmark.width", "100"));
+        threadCounts = parseThreads(System.getProperty("benchmark.threads"));
+
+        files = SiteFixtures.createFiles(pageCount);
+        expected = FileIdManifest.compute(Arrays.asList(files));
+        decorations = new DecorationModel[] { SiteFixtures.createDecoration(width, DEFAULT_TITLE),
+                SiteFixtures.createDecoration(width, LOCALE_TITLE) };
+
+        engine = SiteFixtures.createEngine();
+        template = engine.getTemplate(SiteFixtures.TEMPLATE, "UTF-8");
+        tools = SiteFixtures.createTools(engine);
+
+        renderer = new Renderer(tools, template, decorations, files, expected);
+
+        virtualFactory = getVirtualThreadFactory();
+
+        // Warmup
+        renderer.run(Executors.newFixedThreadPool(threadCounts[threadCounts.length - 1]), null);
+
+        System.out.println(String.format(Locale.ENGLISH, "%10s %8s %12s %10s %12s", "threads", "kind", "pages/s",
+            "speedup", "efficiency"));
+        baseline = 0;
+        for (final int threads : threadCounts) {
+            baseline = report("platform", threads,
+                renderer.run(Executors.newFixedThreadPool(threads), null), baseline);
+        }
+        if (virtualFactory != null) {
+            for (final int threads : threadCounts) {
+                report("virtual", threads,
+                    renderer.run((ExecutorService) virtualFactory.invoke(null), new Semaphore(threads)), baseline);
+            }
+        }
+    }
+
+    /**
+     * Returns the factory method for virtual thread executors, or {@code null} if the JVM does not support them.
+     *
+     * @return the factory method for virtual thread executors
+     */
+    private static final Method getVirtualThreadFactory() {
+        Method factory;
+
+        try {
+            factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (final NoSuchMethodException e) {
+            factory = null;
+        }
+
+        return factory;
+    }
+
+    /**
+     * Parses the thread counts.
+     *
+     * @param value
+     *            comma-separated thread counts, or {@code null} for the default ones
+     * @return the thread counts
+     */
+    private static final int[] parseThreads(final String value) {
+        final List<Integer> counts;
+        final int           max;
+
+        if (value == null) {
+            max = Runtime.getRuntime()
+                .availableProcessors() * 2;
+            counts = new ArrayList<>();
+            for (int threads = 1; threads < max; threads *= 2) {
+                counts.add(threads);
+            }
+            counts.add(max);
+        } else {
+            counts = new ArrayList<>();
+            for (final String count : value.split(",")) {
+                counts.add(Integer.parseInt(count.trim()));
+            }
+        }
+
+        return counts.stream()
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * Prints the results for a run.
+     *
+     * @param kind
+     *            kind of threads
+     * @param threads
+     *            number of threads
+     * @param throughput
+     *            pages rendered each second
+     * @param baseline
+     *            throughput with a single thread, or zero if this is the first run
+     * @return the baseline throughput for the next runs
+     */
+    private static final double report(final String kind, final int threads, final double throughput,
+            final double baseline) {
+        final double base;
+
+        if (baseline <= 0) {
+            base = throughput / threads;
+        } else {
+            base = baseline;
+        }
+
+        System.out.println(String.format(Locale.ENGLISH, "%10d %8s %12.1f %10.2f %11.0f%%", threads, kind,
+            throughput, throughput / base, (throughput / base / threads) * 100));
+
+        return base;
+    }
+
+    /**
+     * Renders all the pages concurrently, checking the results.
+     */
+    private static final class Renderer {
+
+        /**
+         * Decoration models, one for each locale.
+         */
+        private final DecorationModel[] decorations;
+
+        /**
+         * Expected file ids.
+         */
+        private final FileIdManifest    expected;
+
+        /**
+         * Names of the pages to render.
+         */
+        private final String[]          files;
+
+        /**
+         * Template to render.
+         */
+        private final Template          template;
+
+        /**
+         * Tool manager.
+         */
+        private final ToolManager       tools;
+
+        /**
+         * Constructs a renderer.
+         *
+         * @param toolManager
+         *            tool manager
+         * @param pageTemplate
+         *            template to render
+         * @param models
+         *            decoration models, one for each locale
+         * @param pages
+         *            names of the pages to render
+         * @param fileIds
+         *            expected file ids
+         */
+        public Renderer(final ToolManager toolManager, final Template pageTemplate, final DecorationModel[] models,
+                final String[] pages, final FileIdManifest fileIds) {
+            super();
+
+            tools = toolManager;
+            template = pageTemplate;
+            decorations = models;
+            files = pages;
+            expected = fileIds;
+        }
+
+        /**
+         * Renders all the pages with the executor, and then shuts it down.
+         *
+         * @param executor
+         *            executor running the pages
+         * @param limit
+         *            limit for the pages rendered at the same time, or {@code null} if there is no limit
+         * @return the pages rendered each second
+         * @throws InterruptedException
+         *             if interrupted while waiting for the pages
+         * @throws ExecutionException
+         *             if a page failed
+         */
+        public final double run(final ExecutorService executor, final Semaphore limit)
+                throws InterruptedException, ExecutionException {
+            final List<Future<?>> pages;
+            final AtomicInteger   failures;
+            final long            start;
+            final long            end;
+
+            pages = new ArrayList<>(files.length);
+            failures = new AtomicInteger();
+
+            start = System.nanoTime();
+            try {
+                for (int i = 0; i < files.length; i++) {
+                    final int index = i;
+                    pages.add(executor.submit(() -> {
+                        if (limit != null) {
+                            limit.acquireUninterruptibly();
+                        }
+                        try {
+                            if (!render(index)) {
+                                failures.incrementAndGet();
+                            }
+                        } finally {
+                            if (limit != null) {
+                                limit.release();
+                            }
+                        }
+                    }));
+                }
+                for (final Future<?> page : pages) {
+                    page.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            end = System.nanoTime();
+
+            if (failures.get() > 0) {
+                throw new IllegalStateException(failures.get() + " pages received data from other pages");
+            }
+
+            return files.length / ((end - start) / 1_000_000_000.0);
+        }
+
+        /**
+         * Renders a page, checking it contains its own title and file id.
+         *
+         * @param index
+         *            index of the page
+         * @return {@code true} if the page is correct
+         */
+        private final boolean render(final int index) {
+            final ToolContext     toolContext;
+            final VelocityContext context;
+            final StringWriter    output;
+            final String          title;
+            final String          fileId;
+
+            // Pages alternate between locales
+            if (index % 2 == 0) {
+                title = DEFAULT_TITLE;
+            } else {
+                title = LOCALE_TITLE;
+            }
+            fileId = expected.getFileId(files[index]);
+
+            toolContext = tools.createContext();
+            toolContext.put(ConfigToolKeys.DECORATION, decorations[index % 2]);
+            toolContext.put(ConfigToolKeys.CURRENT_FILE_NAME, files[index]);
+            context = new VelocityContext(toolContext);
+            context.put("keys", Arrays.asList("key0", "key1"));
+
+            output = new StringWriter();
+            template.merge(context, output);
+
+            return output.toString()
+                .contains("<title>" + title + " - " + fileId + "</title>");
+        }
+
+    }
+
+}
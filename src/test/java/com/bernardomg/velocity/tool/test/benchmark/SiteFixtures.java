@@ -0,0 +1,311 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.benchmark;
+
+import java.io.Writer;
+import java.util.Properties;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+import org.apache.velocity.tools.ToolManager;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import com.bernardomg.velocity.tool.ConfigIfDirective;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+/**
+ * Shared fixtures for the site rendering benchmarks.
+ * <p>
+ * These mimic the environment created by Maven Site: a Velocity engine, the tools from
+ * {@code META-INF/maven/site-tools.xml}, and a decoration model with a skin configuration.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+final class SiteFixtures {
+
+    /**
+     * Synthetic skin template using the configIf directive.
+     * <p>
+     * Maven Site can't register custom directives, so this is only for comparing the directive with the tool methods.
+     */
+    static final String         DIRECTIVE_TEMPLATE = "benchmark/site-directive.vm";
+
+    /**
+     * Synthetic skin template, using the tool as a skin rendered by Maven Site can.
+     */
+    static final String         TEMPLATE           = "benchmark/site.vm";
+
+    /**
+     * Toolbox configuration, as loaded by Maven Site.
+     */
+    private static final String TOOLBOX            = "META-INF/maven/site-tools.xml";
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private SiteFixtures() {
+        super();
+    }
+
+    /**
+     * Returns a decoration model with a synthetic skin configuration, and the default title.
+     *
+     * @param width
+     *            number of entries in the skin configuration
+     * @return the decoration model
+     */
+    static final DecorationModel createDecoration(final int width) {
+        return createDecoration(width, "Synthetic site");
+    }
+
+    /**
+     * Returns a decoration model with a synthetic skin configuration, with the received title.
+     * <p>
+     * Besides the entries used by the template, it contains the received number of entries, mixing plain values,
+     * nodes with attributes and nodes with repeated children.
+     *
+     * @param width
+     *            number of entries in the skin configuration
+     * @param title
+     *            site title
+     * @return the decoration model
+     */
+    static final DecorationModel createDecoration(final int width, final String title) {
+        final DecorationModel decoration;
+        final Xpp3Dom         custom;
+        final Xpp3Dom         skin;
+        Xpp3Dom               node;
+
+        skin = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skin.addChild(createValue("title", title));
+        skin.addChild(createValue("keywords", "Velocity tool, configuration, benchmark"));
+        skin.addChild(createValue("twitterSite", "@site"));
+        skin.addChild(createValue("enableSearch", "true"));
+        skin.addChild(createValue("enableComments", "false"));
+        skin.addChild(createMenus("topNav", 6));
+        skin.addChild(createMenus("bottomNav", 12));
+
+        for (int i = 0; i < width; i++) {
+            switch (i % 3) {
+                case 0:
+                    node = createValue("key" + i, "value " + i);
+                    break;
+                case 1:
+                    node = createValue("key" + i, "value " + i);
+                    node.setAttribute("type", "attribute " + i);
+                    break;
+                default:
+                    node = createMenus("key" + i, 4);
+            }
+            skin.addChild(node);
+        }
+
+        custom = new Xpp3Dom("custom");
+        custom.addChild(skin);
+
+        decoration = new DecorationModel();
+        decoration.setCustom(custom);
+
+        return decoration;
+    }
+
+    /**
+     * Returns a Velocity engine with the custom directives registered, for the {@link #DIRECTIVE_TEMPLATE}.
+     * <p>
+     * Maven Site doesn't allow configuring its engine, so this setup can't be used by a real site.
+     *
+     * @return the Velocity engine with the custom directives
+     */
+    static final VelocityEngine createDirectiveEngine() {
+        final Properties properties;
+
+        properties = getProperties();
+        properties.setProperty(RuntimeConstants.CUSTOM_DIRECTIVES, ConfigIfDirective.class.getName());
+
+        return createEngine(properties);
+    }
+
+    /**
+     * Returns the Velocity engine, loading templates from the classpath, as Maven Site does.
+     *
+     * @return the Velocity engine
+     */
+    static final VelocityEngine createEngine() {
+        return createEngine(getProperties());
+    }
+
+    /**
+     * Returns the names for the received number of pages.
+     * <p>
+     * The names are spread over several folders, at different depths, and with different extensions.
+     *
+     * @param count
+     *            number of pages
+     * @return the page names
+     */
+    static final String[] createFiles(final int count) {
+        final String[] files;
+
+        files = new String[count];
+        for (int i = 0; i < count; i++) {
+            switch (i % 4) {
+                case 0:
+                    files[i] = "page_" + i + ".html";
+                    break;
+                case 1:
+                    files[i] = "section" + (i % 20) + "/page-" + i + ".html";
+                    break;
+                case 2:
+                    files[i] = "section" + (i % 20) + "/sub" + (i % 7) + "/Page." + i + ".html";
+                    break;
+                default:
+                    files[i] = "apidocs/com/example/package" + (i % 50) + "/Class" + i + ".html";
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Returns a node with repeated menu children.
+     *
+     * @param name
+     *            name of the node
+     * @param count
+     *            number of children
+     * @return the node with the menus
+     */
+    private static final Xpp3Dom createMenus(final String name, final int count) {
+        final Xpp3Dom node;
+        Xpp3Dom       menu;
+
+        node = new Xpp3Dom(name);
+        for (int i = 0; i < count; i++) {
+            menu = createValue("menu", "Menu " + i);
+            menu.setAttribute("href", "./menu" + i + ".html");
+            node.addChild(menu);
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns the tool manager, with the tools loaded by Maven Site.
+     *
+     * @param engine
+     *            Velocity engine for the tools
+     * @return the tool manager
+     */
+    static final ToolManager createTools(final VelocityEngine engine) {
+        final ToolManager tools;
+
+        tools = new ToolManager(false, false);
+        tools.setVelocityEngine(engine);
+        tools.configure(TOOLBOX);
+
+        return tools;
+    }
+
+    /**
+     * Returns a Velocity engine with the received properties.
+     *
+     * @param properties
+     *            engine properties
+     * @return the Velocity engine
+     */
+    private static final VelocityEngine createEngine(final Properties properties) {
+        final VelocityEngine engine;
+
+        engine = new VelocityEngine(properties);
+        engine.init();
+
+        return engine;
+    }
+
+    /**
+     * Returns a node with a value.
+     *
+     * @param name
+     *            name of the node
+     * @param value
+     *            value of the node
+     * @return the node
+     */
+    private static final Xpp3Dom createValue(final String name, final String value) {
+        final Xpp3Dom node;
+
+        node = new Xpp3Dom(name);
+        node.setValue(value);
+
+        return node;
+    }
+
+    /**
+     * Returns the engine properties, loading templates from the classpath.
+     *
+     * @return the engine properties
+     */
+    private static final Properties getProperties() {
+        final Properties properties;
+
+        properties = new Properties();
+        properties.setProperty(RuntimeConstants.RESOURCE_LOADERS, "class");
+        properties.setProperty("resource.loader.class.class", ClasspathResourceLoader.class.getName());
+
+        return properties;
+    }
+
+    /**
+     * Writer which discards everything.
+     */
+    static final class DiscardingWriter extends Writer {
+
+        /**
+         * Default constructor.
+         */
+        public DiscardingWriter() {
+            super();
+        }
+
+        @Override
+        public final void close() {
+            // Nothing to close
+        }
+
+        @Override
+        public final void flush() {
+            // Nothing to flush
+        }
+
+        @Override
+        public final void write(final char[] cbuf, final int off, final int len) {
+            // Discarded
+        }
+
+    }
+
+}
@@ -0,0 +1,336 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.benchmark;
+
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.tools.ToolContext;
+import org.apache.velocity.tools.ToolManager;
+
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+/**
+ * End-to-end site rendering benchmark.
+ * <p>
+ * Renders a synthetic skin template for a number of generated pages, the same way Maven Site does. That is, a Velocity
+ * engine with the tools from {@code META-INF/maven/site-tools.xml}, and a new tool context for each page, containing
+ * the decoration model and the current file name.
+ * <p>
+ * For each combination of page count and configuration width it reports the throughput, the per-page latency and the
+ * bytes allocated per page.
+ * <p>
+ * The benchmark is run twice. First with the template using the tool as a skin rendered by Maven Site can, and then
+ * with the template using the configIf directive, with the directive registered into the engine. Maven Site can't
+ * register custom directives, so the second run is only for comparing the directive with the tool methods.
+ * <p>
+ * It runs offline, and can be configured through these system properties:
+ * <ul>
+ * <li>{@code benchmark.pages}: comma-separated page counts, by default {@code 1000,10000}</li>
+ * <li>{@code benchmark.widths}: comma-separated number of skin configuration entries, by default
+ * {@code 10,100,1000}</li>
+ * <li>{@code benchmark.warmup}: warmup rounds before each measure, by default {@code 2}</li>
+ * </ul>
+ * It can be run with the {@code benchmark} profile: {@code mvn verify -Pbenchmark -DskipTests}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ */
+public final class SiteRenderBenchmark {
+
+    /**
+     * Number of configuration keys each page looks up, besides those used by the template.
+     */
+    private static final int LOOKUPS = 20;
+
+    /**
+     * Private constructor to avoid initialization.
+     */
+    private SiteRenderBenchmark() {
+        super();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            ignored
+     */
+    public static final void main(final String[] args) {
+        final int[] pageCounts;
+        final int[] widths;
+        final int   warmup;
+
+        pageCounts = parse(System.getProperty("benchmark.pages", "1000,10000"));
+        widths = parse(System.getProperty("benchmark.widths", "10,100,1000"));
+        warmup = Integer.parseInt(System.getProperty("benchmark.warmup", "2"));
+
+        System.out.println("Maven Site template, using the tool methods");
+        run(SiteFixtures.createEngine(), SiteFixtures.TEMPLATE, pageCounts, widths, warmup);
+
+        System.out.println();
+        System.out.println("Directive template, with the configIf directive registered (not available in Maven Site)");
+        run(SiteFixtures.createDirectiveEngine(), SiteFixtures.DIRECTIVE_TEMPLATE, pageCounts, widths, warmup);
+    }
+
+    /**
+     * Returns the keys looked up by each page.
+     * <p>
+     * These are spread over the configuration, and include some missing keys.
+     *
+     * @param width
+     *            number of entries in the skin configuration
+     * @return the keys to look up
+     */
+    private static final List<String> createKeys(final int width) {
+        final List<String> keys;
+
+        keys = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (i % 5 == 4) {
+                keys.add("missing" + i);
+            } else {
+                keys.add("key" + ((i * 7919) % Math.max(width, 1)));
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread, or {@code -1} if the JVM can't tell.
+     *
+     * @return the bytes allocated by the current thread
+     */
+    private static final long getAllocatedBytes() {
+        final java.lang.management.ThreadMXBean bean;
+        final long                              allocated;
+
+        bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            allocated = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread()
+                .getId());
+        } else {
+            allocated = -1;
+        }
+
+        return allocated;
+    }
+
+    /**
+     * Parses a comma-separated list of integers.
+     *
+     * @param values
+     *            values to parse
+     * @return the parsed values
+     */
+    private static final int[] parse(final String values) {
+        return Arrays.stream(values.split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    }
+
+    /**
+     * Renders all the pages, measuring the time taken by each one.
+     *
+     * @param tools
+     *            tool manager
+     * @param template
+     *            template to render
+     * @param decoration
+     *            decoration model
+     * @param files
+     *            names of the pages to render
+     * @param keys
+     *            keys looked up by each page
+     * @return the measures
+     */
+    private static final Result render(final ToolManager tools, final Template template,
+            final DecorationModel decoration, final String[] files, final List<String> keys) {
+        final long[]       latencies;
+        final Writer       output;
+        final long         allocatedStart;
+        final long         start;
+        final long         end;
+        final long         allocatedEnd;
+        ToolContext        toolContext;
+        VelocityContext    context;
+        long               pageStart;
+
+        latencies = new long[files.length];
+        output = new SiteFixtures.DiscardingWriter();
+
+        allocatedStart = getAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < files.length; i++) {
+            pageStart = System.nanoTime();
+
+            // Maven Site creates a new context for each page
+            toolContext = tools.createContext();
+            toolContext.put(ConfigToolKeys.DECORATION, decoration);
+            toolContext.put(ConfigToolKeys.CURRENT_FILE_NAME, files[i]);
+            context = new VelocityContext(toolContext);
+            context.put("keys", keys);
+
+            template.merge(context, output);
+
+            latencies[i] = System.nanoTime() - pageStart;
+        }
+        end = System.nanoTime();
+        allocatedEnd = getAllocatedBytes();
+
+        return new Result(latencies, end - start, allocatedEnd - allocatedStart);
+    }
+
+    /**
+     * Runs the benchmark for a template, with all the page counts and widths, and prints the measures.
+     *
+     * @param engine
+     *            Velocity engine
+     * @param templateName
+     *            name of the template to render
+     * @param pageCounts
+     *            page counts
+     * @param widths
+     *            number of entries in the skin configuration
+     * @param warmup
+     *            warmup rounds before each measure
+     */
+    private static final void run(final VelocityEngine engine, final String templateName, final int[] pageCounts,
+            final int[] widths, final int warmup) {
+        final ToolManager tools;
+        final Template    template;
+        DecorationModel   decoration;
+        String[]          files;
+        List<String>      keys;
+        Result            result;
+
+        template = engine.getTemplate(templateName, "UTF-8");
+        tools = SiteFixtures.createTools(engine);
+
+        System.out.println(String.format(Locale.ENGLISH, "%8s %8s %12s %10s %10s %10s %12s", "pages", "width",
+            "pages/s", "p50 (us)", "p99 (us)", "max (us)", "bytes/page"));
+        for (final int width : widths) {
+            for (final int pageCount : pageCounts) {
+                decoration = SiteFixtures.createDecoration(width);
+                files = SiteFixtures.createFiles(pageCount);
+                keys = createKeys(width);
+
+                for (int i = 0; i < warmup; i++) {
+                    render(tools, template, decoration, files, keys);
+                }
+                result = render(tools, template, decoration, files, keys);
+
+                System.out.println(String.format(Locale.ENGLISH, "%8d %8d %12.1f %10.1f %10.1f %10.1f %12d",
+                    pageCount, width, result.getThroughput(), result.getPercentile(0.50) / 1000.0,
+                    result.getPercentile(0.99) / 1000.0, result.getPercentile(1) / 1000.0,
+                    result.getAllocatedPerPage()));
+            }
+        }
+    }
+
+    /**
+     * Measures for a benchmark run.
+     */
+    private static final class Result {
+
+        /**
+         * Bytes allocated during the run.
+         */
+        private final long   allocated;
+
+        /**
+         * Time taken by each page, in nanoseconds, sorted.
+         */
+        private final long[] latencies;
+
+        /**
+         * Total time taken, in nanoseconds.
+         */
+        private final long   total;
+
+        /**
+         * Constructs the measures for a run.
+         *
+         * @param pageLatencies
+         *            time taken by each page
+         * @param totalTime
+         *            total time taken
+         * @param allocatedBytes
+         *            bytes allocated during the run
+         */
+        public Result(final long[] pageLatencies, final long totalTime, final long allocatedBytes) {
+            super();
+
+            latencies = pageLatencies.clone();
+            Arrays.sort(latencies);
+            total = totalTime;
+            allocated = allocatedBytes;
+        }
+
+        /**
+         * Returns the bytes allocated for each page.
+         *
+         * @return the bytes allocated for each page
+         */
+        public final long getAllocatedPerPage() {
+            return allocated / Math.max(latencies.length, 1);
+        }
+
+        /**
+         * Returns the latency for the received percentile, in nanoseconds.
+         *
+         * @param percentile
+         *            percentile, between 0 and 1
+         * @return the latency for the percentile
+         */
+        public final long getPercentile(final double percentile) {
+            final int index;
+
+            index = (int) Math.ceil(percentile * latencies.length) - 1;
+
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+        }
+
+        /**
+         * Returns the number of pages rendered each second.
+         *
+         * @return the pages per second
+         */
+        public final double getThroughput() {
+            return latencies.length / (total / 1_000_000_000.0);
+        }
+
+    }
+
+}
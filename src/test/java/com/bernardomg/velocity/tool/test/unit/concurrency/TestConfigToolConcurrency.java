@@ -0,0 +1,450 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.concurrency;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+/**
+ * Stress tests for pages configured and rendered concurrently.
+ * <p>
+ * Each test starts all the threads at the same time, and repeats the same actions many times, checking that no page
+ * ever sees data from another page.
+ */
+@DisplayName("Concurrent configuration")
+@Timeout(120)
+public final class TestConfigToolConcurrency {
+
+    /**
+     * Number of distinct configurations, more than the snapshots cache can keep.
+     */
+    private static final int CONFIGS = 40;
+
+    /**
+     * Number of lookups for each thread on each round, when checking the last entry of the caches.
+     */
+    private static final int LOOKUPS = 16;
+
+    /**
+     * Number of rounds for each thread.
+     */
+    private static final int ROUNDS  = 500;
+
+    /**
+     * Number of threads.
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Seconds to wait for the other threads on each round.
+     */
+    private static final int WAIT    = 30;
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolConcurrency() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Pages configured concurrently keep their own configuration and file id")
+    public final void testConfigure_Concurrent_NoCrossPage() throws Exception {
+        final String[]          titles;      // Title for each locale
+        final DecorationModel[] decorations; // Decoration for each locale
+        final AtomicInteger     failures;    // Pages with wrong data
+
+        titles = new String[] { "Title", "Título" };
+        decorations = new DecorationModel[] { getDecoration(titles[0]), getDecoration(titles[1]) };
+        failures = new AtomicInteger();
+
+        runConcurrently((thread, round) -> {
+            final int        locale; // Locale for the page
+            final String     page;   // Page name
+            final ConfigTool util;   // Utilities class to test
+
+            locale = (thread + round) % 2;
+            page = "section" + thread + "/page_" + round + ".html";
+
+            util = getConfigTool(decorations[locale], page);
+
+            if (!("section" + thread + "-page-" + round).equals(util.getFileId())) {
+                failures.incrementAndGet();
+            }
+            if (!titles[locale].equals(util.get("title")
+                .getValue())) {
+                failures.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals(0, failures.get());
+    }
+
+    @Test
+    @DisplayName("Snapshots evicted and built again concurrently keep their own configuration")
+    public final void testConfigure_Concurrent_Eviction() throws Exception {
+        final DecorationModel[] decorations; // Decoration for each configuration
+        final AtomicInteger     failures;    // Pages with wrong data
+
+        decorations = new DecorationModel[CONFIGS];
+        for (int i = 0; i < CONFIGS; i++) {
+            decorations[i] = getDecoration("Title " + i);
+        }
+        failures = new AtomicInteger();
+
+        runConcurrently((thread, round) -> {
+            final int        index; // Configuration for the page
+            final ConfigTool util;  // Utilities class to test
+
+            // Each thread goes through all the configurations, forcing evictions from the cache
+            index = ((thread * 7) + round) % CONFIGS;
+            util = getConfigTool(decorations[index], "page.html");
+
+            if (!("Title " + index).equals(util.get("title")
+                .getValue())) {
+                failures.incrementAndGet();
+            }
+            if (!("{\"title\":\"Title " + index + "\"}").equals(util.getJson())) {
+                failures.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals(0, failures.get());
+    }
+
+    @Test
+    @DisplayName("Lookups alternating between configurations never receive the snapshot of the other one")
+    public final void testConfigure_Concurrent_LastEntry() throws Exception {
+        final String[]          titles;      // Title for each configuration
+        final DecorationModel[] decorations; // Decoration for each configuration
+        final AtomicInteger     failures;    // Pages with wrong data
+
+        titles = new String[] { "First", "Second" };
+        decorations = new DecorationModel[] { getDecoration(titles[0]), getDecoration(titles[1]) };
+        failures = new AtomicInteger();
+
+        runConcurrently((thread, round) -> {
+            int        index; // Configuration for the page
+            ConfigTool util;  // Utilities class to test
+
+            // The last entry of the caches is replaced on each lookup, while other threads read it
+            for (int i = 0; i < LOOKUPS; i++) {
+                index = (thread + i) % 2;
+                util = getConfigTool(decorations[index], "page" + i + ".html");
+                if (!titles[index].equals(util.get("title")
+                    .getValue())) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+
+        Assert.assertEquals(0, failures.get());
+    }
+
+    @Test
+    @DisplayName("A shared tool never keeps the snapshot of a replaced configuration")
+    public final void testSetSkinConfig_Shared_LatestConfig() throws Exception {
+        final ConfigTool    shared;   // Tool shared by all the threads
+        final AtomicInteger failures; // Reads with wrong data
+
+        shared = getConfigTool(getDecoration("Title -1"), "page.html");
+        failures = new AtomicInteger();
+
+        runConcurrently((thread, round) -> {
+            final String expected; // Title for the last configuration set
+
+            if ((round % 2) == 0) {
+                // One thread replaces the configuration twice, while the others acquire the snapshot
+                if (thread == 0) {
+                    shared.setSkinConfig(getStaleSkin(round));
+                    Thread.yield();
+                    shared.setSkinConfig(getSkin("Title " + round));
+                } else {
+                    for (int i = 0; i < LOOKUPS; i++) {
+                        shared.get("title");
+                    }
+                }
+            } else {
+                // All the threads wait for the replacement before checking it
+                expected = "Title " + (round - 1);
+                if (!expected.equals(shared.get("title")
+                    .getValue())) {
+                    failures.incrementAndGet();
+                }
+                if (!expected.equals(shared.getSkinConfig()
+                    .getChild("title")
+                    .getValue())) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+
+        Assert.assertEquals(0, failures.get());
+    }
+
+    @Test
+    @DisplayName("JSON serialized concurrently is always complete")
+    public final void testGetJson_Concurrent_Complete() throws Exception {
+        final AtomicInteger failures; // Pages with wrong data
+
+        failures = new AtomicInteger();
+
+        runConcurrently((thread, round) -> {
+            final ConfigTool util; // Utilities class to test
+
+            // A new configuration each round, so all the threads serialize it at the same time
+            util = getConfigTool(getDecoration("Title " + round), "page.html");
+
+            if (!("{\"title\":\"Title " + round + "\"}").equals(util.getJson())) {
+                failures.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals(0, failures.get());
+    }
+
+    @Test
+    @DisplayName("Fragments rendered concurrently are rendered for their own page")
+    public final void testRenderPage_Concurrent_OwnPage() throws Exception {
+        final DecorationModel decoration; // Decoration model
+        final AtomicInteger   failures;   // Pages with wrong data
+
+        decoration = getDecoration("Title");
+        failures = new AtomicInteger();
+
+        runConcurrently((thread, round) -> {
+            final ConfigTool util; // Utilities class to test
+            final String     page; // Page name
+
+            page = "page" + ((thread * ROUNDS) + round);
+            util = getConfigTool(decoration, page + ".html");
+
+            // The fragment output depends on the page, like a breadcrumb
+            if (!page.equals(util.renderPage("concurrent", new Object() {
+
+                @Override
+                public final String toString() {
+                    return page;
+                }
+
+            }))) {
+                failures.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals(0, failures.get());
+    }
+
+    /**
+     * Returns the utilities class being tested, set up for the tests.
+     *
+     * @param decoration
+     *            decoration model
+     * @param currentFile
+     *            current page
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final DecorationModel decoration, final String currentFile) {
+        final ConfigTool          util;    // Utilities class to test
+        final Map<String, Object> map;     // Configuration map
+        final ToolContext         context; // Velocity context
+
+        util = new ConfigTool();
+
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, decoration);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, currentFile);
+
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        return util;
+    }
+
+    /**
+     * Returns a decoration model with the received title.
+     *
+     * @param title
+     *            title in the skin configuration
+     * @return the decoration model
+     */
+    private final DecorationModel getDecoration(final String title) {
+        final DecorationModel deco;       // Decoration model
+        final Xpp3Dom         customNode; // <custom> node
+
+        customNode = new Xpp3Dom("custom");
+        customNode.addChild(getSkin(title));
+
+        // Mocks are not used, as stubbing is not thread-safe
+        deco = new DecorationModel();
+        deco.setCustom(customNode);
+
+        return deco;
+    }
+
+    /**
+     * Returns a skin configuration with the received title.
+     *
+     * @param title
+     *            title in the skin configuration
+     * @return the skin configuration
+     */
+    private final Xpp3Dom getSkin(final String title) {
+        final Xpp3Dom skinNode;  // <skinConfig> node
+        final Xpp3Dom titleNode; // <title> node
+
+        titleNode = new Xpp3Dom("title");
+        titleNode.setValue(title);
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skinNode.addChild(titleNode);
+
+        return skinNode;
+    }
+
+    /**
+     * Returns a large skin configuration, which takes a while to snapshot.
+     *
+     * @param round
+     *            round setting the configuration
+     * @return the skin configuration
+     */
+    private final Xpp3Dom getStaleSkin(final int round) {
+        final Xpp3Dom skinNode; // <skinConfig> node
+        Xpp3Dom       node;     // Filler node
+
+        skinNode = getSkin("Stale " + round);
+        for (int i = 0; i < CONFIGS; i++) {
+            node = new Xpp3Dom("key" + i);
+            node.setValue("value" + i);
+            skinNode.addChild(node);
+        }
+
+        return skinNode;
+    }
+
+    /**
+     * Runs the action in all the threads, for all the rounds.
+     * <p>
+     * All the threads wait for each other before starting each round, so they run the same round at the same time. If
+     * a thread fails the others are released, and the error is thrown, instead of waiting forever.
+     *
+     * @param action
+     *            action to run
+     * @throws Exception
+     *             if any thread fails
+     */
+    private final void runConcurrently(final Action action) throws Exception {
+        final ExecutorService        executor; // Executor for the threads
+        final CyclicBarrier          barrier;  // Barrier for starting each round
+        final List<Future<Object>>   results;  // Results for each thread
+        final List<Callable<Object>> tasks;    // Task for each thread
+        ExecutionException           failure;  // First error found
+
+        barrier = new CyclicBarrier(THREADS);
+        tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            tasks.add(() -> {
+                for (int round = 0; round < ROUNDS; round++) {
+                    barrier.await(WAIT, TimeUnit.SECONDS);
+                    try {
+                        action.run(thread, round);
+                    } catch (final Throwable e) {
+                        // Releases the other threads, which otherwise would wait for this one
+                        barrier.reset();
+                        throw e;
+                    }
+                }
+                return null;
+            });
+        }
+
+        executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            results = executor.invokeAll(tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        failure = null;
+        for (final Future<Object> result : results) {
+            try {
+                result.get();
+            } catch (final ExecutionException e) {
+                // A broken barrier only tells that another thread failed, so the actual error is preferred
+                if ((failure == null) || (failure.getCause() instanceof BrokenBarrierException)) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Action run by each thread, on each round.
+     */
+    private interface Action {
+
+        /**
+         * Runs the action.
+         *
+         * @param thread
+         *            index of the thread
+         * @param round
+         *            index of the round
+         */
+        void run(final int thread, final int round);
+
+    }
+
+}
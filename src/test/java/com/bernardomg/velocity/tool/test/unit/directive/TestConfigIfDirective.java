@@ -0,0 +1,194 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.directive;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.velocity.tool.ConfigIfDirective;
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+@DisplayName("Rendering blocks gated by a configuration flag")
+public final class TestConfigIfDirective {
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigIfDirective() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The block is skipped when the flag is disabled")
+    public final void testRender_Disabled_Skipped() {
+        final String result; // Rendered template
+
+        result = render("#configIf('enableSearch')search#end", "enableSearch", "false");
+
+        Assert.assertEquals("", result);
+    }
+
+    @Test
+    @DisplayName("The block is rendered when the flag is enabled")
+    public final void testRender_Enabled_Rendered() {
+        final String result; // Rendered template
+
+        result = render("#configIf('enableSearch')search#end", "enableSearch", "true");
+
+        Assert.assertEquals("search", result);
+    }
+
+    @Test
+    @DisplayName("The flag name can be a variable")
+    public final void testRender_Variable_Rendered() {
+        final String result; // Rendered template
+
+        result = render("#set( $flag = 'enableSearch' )#configIf($flag)search#end", "enableSearch", "true");
+
+        Assert.assertEquals("search", result);
+    }
+
+    @Test
+    @DisplayName("The block is skipped when the flag is missing")
+    public final void testRender_Missing_Skipped() {
+        final String result; // Rendered template
+
+        result = render("#configIf('enableSearch')search#end", "other", "true");
+
+        Assert.assertEquals("", result);
+    }
+
+    @Test
+    @DisplayName("Rendering fails when there is no tool")
+    public final void testRender_NoTool_Rejected() {
+        final VelocityEngine    engine;    // Engine with the directive
+        final VelocityException exception; // Error for the missing tool
+
+        engine = getEngine();
+        exception = Assertions.assertThrows(VelocityException.class, () -> engine.evaluate(new VelocityContext(),
+            new StringWriter(), "test", "#configIf('enableSearch')search#end"));
+
+        Assert.assertTrue(exception.getMessage()
+            .contains("'config'"));
+    }
+
+    @Test
+    @DisplayName("The directive requires a single argument")
+    public final void testRender_NoArgument_Rejected() {
+        Assertions.assertThrows(ParseErrorException.class,
+            () -> render("#configIf()search#end", "enableSearch", "true"));
+    }
+
+    /**
+     * Returns a Velocity engine with the directive registered.
+     *
+     * @return a Velocity engine
+     */
+    private final VelocityEngine getEngine() {
+        final Properties     properties; // Engine properties
+        final VelocityEngine engine;     // Engine with the directive
+
+        properties = new Properties();
+        properties.setProperty(RuntimeConstants.CUSTOM_DIRECTIVES, ConfigIfDirective.class.getName());
+
+        engine = new VelocityEngine(properties);
+        engine.init();
+
+        return engine;
+    }
+
+    /**
+     * Renders the template with a tool containing the received flag.
+     *
+     * @param template
+     *            template to render
+     * @param name
+     *            flag name
+     * @param value
+     *            flag value
+     * @return the rendered template
+     */
+    private final String render(final String template, final String name, final String value) {
+        final ConfigTool          util;       // Utilities class to test
+        final Map<String, Object> map;        // Configuration map
+        final ToolContext         context;    // Velocity context
+        final DecorationModel     deco;       // Decoration model
+        final Xpp3Dom             customNode; // <custom> node
+        final Xpp3Dom             skinNode;   // <skinConfig> node
+        final Xpp3Dom             flagNode;   // Node with the flag
+        final VelocityContext     velocity;   // Context for the template
+        final StringWriter        writer;     // Rendered template
+
+        flagNode = new Xpp3Dom(name);
+        flagNode.setValue(value);
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skinNode.addChild(flagNode);
+
+        customNode = new Xpp3Dom("custom");
+        customNode.addChild(skinNode);
+
+        deco = Mockito.mock(DecorationModel.class);
+        Mockito.when(deco.getCustom())
+            .thenReturn(customNode);
+
+        util = new ConfigTool();
+
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, deco);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page");
+
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        velocity = new VelocityContext();
+        velocity.put(ConfigToolKeys.CONFIG_TOOL, util);
+
+        writer = new StringWriter();
+        getEngine().evaluate(velocity, writer, "test", template);
+
+        return writer.toString();
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.manifest;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.FileIdManifest;
+
+@DisplayName("File id manifest")
+public final class TestFileIdManifest {
+
+    /**
+     * Default constructor.
+     */
+    public TestFileIdManifest() {
+        super();
+    }
+
+    @Test
+    @DisplayName("File ids are slugged")
+    public final void testCompute_Slugged() {
+        final FileIdManifest manifest; // Manifest to test
+
+        manifest = FileIdManifest.compute(Arrays.asList("path-to\\file_name..something.html", "index.html", ".html"));
+
+        Assert.assertEquals("path-to-file-name-something", manifest.getFileId("path-to\\file_name..something.html"));
+        Assert.assertEquals("index", manifest.getFileId("index.html"));
+        Assert.assertEquals("", manifest.getFileId(".html"));
+    }
+
+    @Test
+    @DisplayName("Many files are computed with a custom pool")
+    public final void testCompute_Pool() {
+        final FileIdManifest     manifest; // Manifest to test
+        final Collection<String> files;    // Files to slug
+        final ForkJoinPool       pool;     // Pool for the computation
+
+        files = IntStream.range(0, 10000)
+            .mapToObj(i -> "section" + (i % 10) + "/page_" + i + ".html")
+            .collect(Collectors.toList());
+
+        pool = new ForkJoinPool(4);
+        try {
+            manifest = FileIdManifest.compute(files, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertEquals(10000, manifest.size());
+        Assert.assertEquals("section3-page-1233", manifest.getFileId("section3/page_1233.html"));
+    }
+
+    @Test
+    @DisplayName("Null and repeated files are ignored")
+    public final void testCompute_NullRepeated_Ignored() {
+        final FileIdManifest manifest; // Manifest to test
+
+        manifest = FileIdManifest.compute(Arrays.asList("index.html", null, "index.html"));
+
+        Assert.assertEquals(1, manifest.size());
+    }
+
+    @Test
+    @DisplayName("Missing files give a null")
+    public final void testGetFileId_Missing_Null() {
+        final FileIdManifest manifest; // Manifest to test
+
+        manifest = FileIdManifest.compute(Arrays.asList("index.html"));
+
+        Assert.assertNull(manifest.getFileId("other.html"));
+    }
+
+    @Test
+    @DisplayName("A malformed manifest is rejected")
+    public final void testRead_Malformed() {
+        Assertions.assertThrows(IOException.class, () -> FileIdManifest.read(new StringReader("index.html\n")));
+    }
+
+    @Test
+    @DisplayName("A manifest with an unknown escape sequence is rejected")
+    public final void testRead_UnknownEscape() {
+        Assertions.assertThrows(IOException.class,
+            () -> FileIdManifest.read(new StringReader("index\tC:\\index.html\n")));
+    }
+
+    @Test
+    @DisplayName("A written manifest is read back")
+    public final void testWrite_Read() throws IOException {
+        final FileIdManifest manifest; // Manifest to test
+        final FileIdManifest read;     // Manifest read back
+        final StringWriter   writer;   // Manifest output
+
+        manifest = FileIdManifest.compute(Arrays.asList("b/page.html", "a page.html"));
+
+        writer = new StringWriter();
+        manifest.write(writer);
+
+        read = FileIdManifest.read(new StringReader(writer.toString()));
+
+        Assert.assertEquals("a-page\ta page.html\nb-page\tb/page.html\n", writer.toString());
+        Assert.assertEquals(manifest.getFileIds(), read.getFileIds());
+    }
+
+    @Test
+    @DisplayName("A written manifest with separators in the names is read back")
+    public final void testWrite_Read_Escaped() throws IOException {
+        final FileIdManifest manifest; // Manifest to test
+        final FileIdManifest read;     // Manifest read back
+        final StringWriter   writer;   // Manifest output
+
+        manifest = FileIdManifest.compute(Arrays.asList("a\tpage.html", "b\npage.html", "c\\page.html"));
+
+        writer = new StringWriter();
+        manifest.write(writer);
+
+        read = FileIdManifest.read(new StringReader(writer.toString()));
+
+        Assert.assertEquals(3, writer.toString()
+            .split("\n").length);
+        Assert.assertEquals(manifest.getFileIds(), read.getFileIds());
+    }
+
+}
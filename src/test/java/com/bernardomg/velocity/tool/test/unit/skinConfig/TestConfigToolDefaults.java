@@ -0,0 +1,339 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+@DisplayName("Getting configuration merged with the skin defaults")
+public final class TestConfigToolDefaults {
+
+    /**
+     * Defaults used for the tests.
+     */
+    private static final String DEFAULTS = "defaults/skin-config-defaults.xml";
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolDefaults() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Each skin receives its own default defaults")
+    public final void testGet_DifferentSkins_OwnDefaults() throws IOException {
+        final Thread      thread;   // Current thread
+        final ClassLoader original; // Original context class loader
+
+        thread = Thread.currentThread();
+        original = thread.getContextClassLoader();
+        try (final URLClassLoader light = getSkinLoader("light");
+                final URLClassLoader dark = getSkinLoader("dark")) {
+            // Maven Site sets the skin class loader as context class loader
+            thread.setContextClassLoader(light);
+            Assert.assertEquals("light", getConfigTool(null, new Xpp3Dom(ConfigToolKeys.SKIN)).get("theme")
+                .getValue());
+
+            thread.setContextClassLoader(dark);
+            Assert.assertEquals("dark", getConfigTool(null, new Xpp3Dom(ConfigToolKeys.SKIN)).get("theme")
+                .getValue());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    @DisplayName("The defaults are returned for missing keys")
+    public final void testGet_Missing_Default() {
+        final ConfigTool util;     // Utilities class to test
+        final Xpp3Dom    skinNode; // <skinConfig> node
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        addChild(skinNode, "other", "value");
+
+        util = getConfigTool(DEFAULTS, skinNode);
+
+        Assert.assertEquals("Default title", util.get("title")
+            .getValue());
+        Assert.assertEquals("light", util.get("theme")
+            .getValue());
+        Assert.assertEquals("value", util.get("other")
+            .getValue());
+    }
+
+    @Test
+    @DisplayName("A missing defaults file set as property is rejected")
+    public final void testGet_MissingDefaults() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> getConfigTool("defaults/not-existing.xml", new Xpp3Dom(ConfigToolKeys.SKIN)));
+    }
+
+    @Test
+    @DisplayName("The defaults are merged into nested nodes")
+    public final void testGet_Nested_Merged() {
+        final ConfigTool util;     // Utilities class to test
+        final Xpp3Dom    skinNode; // <skinConfig> node
+        final Xpp3Dom    navNode;  // <topNav> node
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        navNode = new Xpp3Dom("topNav");
+        addChild(navNode, "style", "light");
+        skinNode.addChild(navNode);
+
+        util = getConfigTool(DEFAULTS, skinNode);
+
+        Assert.assertEquals("light", util.get("topNav")
+            .getChild("style")
+            .getValue());
+        Assert.assertEquals("Default link", util.get("topNav")
+            .getChild("link")
+            .getValue());
+    }
+
+    @Test
+    @DisplayName("Without skin configuration the defaults are returned")
+    public final void testGet_NoConfig_Defaults() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(DEFAULTS, null);
+
+        Assert.assertEquals("Default title", util.get("title")
+            .getValue());
+    }
+
+    @Test
+    @DisplayName("Without defaults the values are kept as they are")
+    public final void testGet_NoDefaults_Unchanged() {
+        final ConfigTool util;     // Utilities class to test
+        final Xpp3Dom    skinNode; // <skinConfig> node
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        addChild(skinNode, "other", "value");
+
+        util = getConfigTool(null, skinNode);
+
+        Assert.assertNull(util.get("title"));
+        Assert.assertEquals("value", util.get("other")
+            .getValue());
+    }
+
+    @Test
+    @DisplayName("The user values override the defaults")
+    public final void testGet_Override() {
+        final ConfigTool util;     // Utilities class to test
+        final Xpp3Dom    skinNode; // <skinConfig> node
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        addChild(skinNode, "title", "Title");
+
+        util = getConfigTool(DEFAULTS, skinNode);
+
+        Assert.assertEquals("Title", util.get("title")
+            .getValue());
+    }
+
+    @Test
+    @DisplayName("The merge attributes are removed from the attributes")
+    public final void testGetAttributes_Directives_Removed() {
+        final ConfigTool util;     // Utilities class to test
+        final Xpp3Dom    skinNode; // <skinConfig> node
+        final Xpp3Dom    navNode;  // <topNav> node
+        final Xpp3Dom    linkNode; // <link> node
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        navNode = new Xpp3Dom("topNav");
+        navNode.setAttribute("combine.children", "append");
+        linkNode = new Xpp3Dom("link");
+        linkNode.setAttribute("combine.self", "override");
+        linkNode.setAttribute("href", "./index.html");
+        linkNode.setValue("Home");
+        navNode.addChild(linkNode);
+        skinNode.addChild(navNode);
+
+        util = getConfigTool(DEFAULTS, skinNode);
+
+        Assert.assertNull(util.get("topNav")
+            .getAttribute("combine.children"));
+        Assert.assertEquals(2, util.getAttributes("topNav", "link")
+            .size());
+        for (final Map<String, String> attributes : util.getAttributes("topNav", "link")) {
+            Assert.assertFalse(attributes.containsKey("combine.self"));
+        }
+        Assert.assertEquals("./index.html", util.getAttributes("topNav", "link")
+            .get(1)
+            .get("href"));
+        Assert.assertEquals("override", linkNode.getAttribute("combine.self"));
+    }
+
+    @Test
+    @DisplayName("The merge attributes are removed from the JSON")
+    public final void testGetJson_Directives_Removed() {
+        final ConfigTool util;     // Utilities class to test
+        final Xpp3Dom    skinNode; // <skinConfig> node
+        final Xpp3Dom    navNode;  // <topNav> node
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skinNode.setAttribute("combine.children", "merge");
+        navNode = new Xpp3Dom("topNav");
+        navNode.setAttribute("combine.self", "override");
+        addChild(navNode, "style", "light");
+        skinNode.addChild(navNode);
+
+        util = getConfigTool(DEFAULTS, skinNode);
+
+        Assert.assertFalse(util.getJson()
+            .contains("combine"));
+        Assert.assertFalse(util.getJson("topNav")
+            .contains("combine"));
+        Assert.assertNull(util.get("topNav")
+            .getChild("link"));
+    }
+
+    @Test
+    @DisplayName("The user configuration is not modified")
+    public final void testGetSkinConfig_NotModified() {
+        final ConfigTool util;     // Utilities class to test
+        final Xpp3Dom    skinNode; // <skinConfig> node
+
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        addChild(skinNode, "other", "value");
+
+        util = getConfigTool(DEFAULTS, skinNode);
+        util.get("title");
+
+        Assert.assertNull(util.getSkinConfig()
+            .getChild("title"));
+        Assert.assertEquals(1, skinNode.getChildCount());
+    }
+
+    /**
+     * Adds a child with a value to the node.
+     *
+     * @param parent
+     *            node where the child is added
+     * @param name
+     *            child name
+     * @param value
+     *            child value
+     */
+    private final void addChild(final Xpp3Dom parent, final String name, final String value) {
+        final Xpp3Dom child; // Child node
+
+        child = new Xpp3Dom(name);
+        child.setValue(value);
+        parent.addChild(child);
+    }
+
+    /**
+     * Returns the utilities class to test, set up with the received defaults and skin configuration.
+     *
+     * @param defaults
+     *            path to the defaults, or {@code null} to use the default path
+     * @param skinNode
+     *            skin configuration node, or {@code null} for no configuration
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final String defaults, final Xpp3Dom skinNode) {
+        final ConfigTool          util;       // Utilities class to test
+        final Map<String, Object> map;        // Configuration map
+        final ToolContext         context;    // Velocity context
+        final DecorationModel     deco;       // Decoration model
+        final Xpp3Dom             customNode; // <custom> node
+
+        // Creates custom data node
+        customNode = new Xpp3Dom("custom");
+        if (skinNode != null) {
+            customNode.addChild(skinNode);
+        }
+
+        // Creates decoration model
+        deco = Mockito.mock(DecorationModel.class);
+        Mockito.when(deco.getCustom())
+            .thenReturn(customNode);
+
+        // Creates utilities class
+        util = new ConfigTool();
+
+        // Creates context
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, deco);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page");
+
+        // Prepares configuration
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+        if (defaults != null) {
+            map.put(ConfigToolKeys.DEFAULTS, defaults);
+        }
+
+        util.configure(map);
+
+        return util;
+    }
+
+    /**
+     * Returns a class loader for a skin with the default defaults, setting the received theme.
+     *
+     * @param theme
+     *            theme set in the defaults
+     * @return the skin class loader
+     * @throws IOException
+     *             if the defaults can't be written
+     */
+    private final URLClassLoader getSkinLoader(final String theme) throws IOException {
+        final Path root;     // Skin root folder
+        final Path defaults; // Defaults file
+
+        root = Files.createTempDirectory("skin");
+        defaults = root.resolve(ConfigToolKeys.DEFAULT_DEFAULTS);
+        Files.createDirectories(defaults.getParent());
+        Files.write(defaults, ("<skinConfig><theme>" + theme + "</theme></skinConfig>")
+            .getBytes(StandardCharsets.UTF_8));
+
+        return new URLClassLoader(new URL[] { root.toUri()
+            .toURL() }, Thread.currentThread()
+                .getContextClassLoader());
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.velocity.tools.ToolContext;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@DisplayName("Flight Recorder events")
+public final class TestConfigToolEvents {
+
+    /**
+     * Configure event name.
+     */
+    private static final String CONFIGURE = "com.bernardomg.velocity.tool.Configure";
+
+    /**
+     * Lookup event name.
+     */
+    private static final String LOOKUP    = "com.bernardomg.velocity.tool.Lookup";
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolEvents() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A configure event is recorded for the page")
+    public final void testConfigure_Enabled_Recorded() throws IOException {
+        final List<RecordedEvent> events; // Recorded events
+
+        try (final Recording recording = new Recording()) {
+            recording.enable(CONFIGURE);
+            recording.start();
+
+            getConfigTool("page.html");
+
+            recording.stop();
+            events = getEvents(recording, CONFIGURE);
+        }
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals("page", events.iterator()
+            .next()
+            .getString("fileId"));
+    }
+
+    @Test
+    @DisplayName("No event is recorded when they are not enabled")
+    public final void testConfigure_NotEnabled_NotRecorded() throws IOException {
+        final List<RecordedEvent> events; // Recorded events
+        final ConfigTool          util;   // Utilities class to test
+
+        try (final Recording recording = new Recording()) {
+            recording.start();
+
+            util = getConfigTool("page.html");
+            util.get("title");
+
+            recording.stop();
+            events = getEvents(recording, CONFIGURE);
+            events.addAll(getEvents(recording, LOOKUP));
+        }
+
+        Assert.assertEquals(0, events.size());
+    }
+
+    @Test
+    @DisplayName("Only a sample of the lookups is recorded")
+    public final void testLookup_Enabled_Sampled() throws IOException {
+        final List<RecordedEvent> events; // Recorded events
+        final ConfigTool          util;   // Utilities class to test
+        final int                 total;  // Number of lookups
+
+        total = 4096;
+
+        try (final Recording recording = new Recording()) {
+            recording.enable(LOOKUP);
+            recording.start();
+
+            util = getConfigTool("page.html");
+            for (int i = 0; i < total; i++) {
+                util.get("title");
+            }
+
+            recording.stop();
+            events = getEvents(recording, LOOKUP);
+        }
+
+        Assert.assertTrue(events.size() > 0);
+        Assert.assertTrue(events.size() < total);
+        Assert.assertEquals("title", events.iterator()
+            .next()
+            .getString("key"));
+        Assert.assertFalse(events.iterator()
+            .next()
+            .getBoolean("hit"));
+    }
+
+    /**
+     * Returns a {@code ConfigTool} set up for the received file.
+     *
+     * @param fileName
+     *            current file name
+     * @return a {@code ConfigTool} for the file
+     */
+    private final ConfigTool getConfigTool(final String fileName) {
+        final ConfigTool          util;    // Utilities class to test
+        final Map<String, Object> map;     // Configuration map
+        final ToolContext         context; // Velocity context
+
+        util = new ConfigTool();
+
+        context = new ToolContext();
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, fileName);
+
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        return util;
+    }
+
+    /**
+     * Returns the events with the received name stored in the recording.
+     *
+     * @param recording
+     *            stopped recording
+     * @param name
+     *            name of the events to return
+     * @return the events with the received name
+     * @throws IOException
+     *             if the recording can't be read
+     */
+    private final List<RecordedEvent> getEvents(final Recording recording, final String name) throws IOException {
+        final Path                path;   // Recording file
+        final List<RecordedEvent> events; // Recorded events
+
+        path = Files.createTempFile("recording", ".jfr");
+        path.toFile()
+            .deleteOnExit();
+        recording.dump(path);
+
+        events = RecordingFile.readAllEvents(path)
+            .stream()
+            .filter(e -> name.equals(e.getEventType()
+                .getName()))
+            .collect(Collectors.toCollection(ArrayList::new));
+
+        return events;
+    }
+
+}
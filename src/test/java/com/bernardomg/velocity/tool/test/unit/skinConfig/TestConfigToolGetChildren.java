@@ -0,0 +1,252 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+@DisplayName("Getting repeated children")
+public final class TestConfigToolGetChildren {
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolGetChildren() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Returns the attributes of the children in order")
+    public final void testGetAttributes() {
+        final List<Map<String, String>> attributes; // Attributes returned
+
+        attributes = getConfigTool().getAttributes("links", "link");
+
+        Assert.assertEquals(2, attributes.size());
+        Assert.assertEquals("./index.html", attributes.get(0)
+            .get("href"));
+        Assert.assertEquals("./usage.html", attributes.get(1)
+            .get("href"));
+    }
+
+    @Test
+    @DisplayName("Missing children give an empty list of attributes")
+    public final void testGetAttributes_Missing_Empty() {
+        Assert.assertTrue(getConfigTool().getAttributes("links", "abc")
+            .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Returns the attributes of the children of a nested node")
+    public final void testGetAttributes_Path() {
+        final List<Map<String, String>> attributes; // Attributes returned
+
+        attributes = getConfigTool().getAttributes("nav/menu", "item");
+
+        Assert.assertEquals(2, attributes.size());
+        Assert.assertEquals("./index.html", attributes.get(0)
+            .get("href"));
+        Assert.assertEquals("./about.html", attributes.get(1)
+            .get("href"));
+    }
+
+    @Test
+    @DisplayName("Returns the children with the name in order")
+    public final void testGetChildren() {
+        final List<Xpp3Dom> children; // Children returned
+
+        children = getConfigTool().getChildren("links", "link");
+
+        Assert.assertEquals(2, children.size());
+        Assert.assertEquals("Home", children.get(0)
+            .getValue());
+        Assert.assertEquals("Usage", children.get(1)
+            .getValue());
+    }
+
+    @Test
+    @DisplayName("The children list can't be modified")
+    public final void testGetChildren_Immutable() {
+        final List<Xpp3Dom> children; // Children returned
+
+        children = getConfigTool().getChildren("links", "link");
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> children.clear());
+    }
+
+    @Test
+    @DisplayName("Missing children give an empty list")
+    public final void testGetChildren_MissingChild_Empty() {
+        Assert.assertTrue(getConfigTool().getChildren("links", "abc")
+            .isEmpty());
+    }
+
+    @Test
+    @DisplayName("A missing node gives an empty list")
+    public final void testGetChildren_MissingNode_Empty() {
+        Assert.assertTrue(getConfigTool().getChildren("abc", "link")
+            .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Returns the children of a nested node in order")
+    public final void testGetChildren_Path() {
+        final List<Xpp3Dom> children; // Children returned
+
+        children = getConfigTool().getChildren("nav/menu", "item");
+
+        Assert.assertEquals(2, children.size());
+        Assert.assertEquals("Index", children.get(0)
+            .getValue());
+        Assert.assertEquals("About", children.get(1)
+            .getValue());
+    }
+
+    @Test
+    @DisplayName("A missing nested node gives an empty list")
+    public final void testGetChildren_Path_Missing_Empty() {
+        Assert.assertTrue(getConfigTool().getChildren("nav/abc", "item")
+            .isEmpty());
+    }
+
+    @Test
+    @DisplayName("The same list is returned on each call for a nested node")
+    public final void testGetChildren_Path_Reused() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool();
+
+        Assert.assertSame(util.getChildren("nav/menu", "item"), util.getChildren("nav/menu", "item"));
+    }
+
+    @Test
+    @DisplayName("The same list is returned on each call")
+    public final void testGetChildren_Reused() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool();
+
+        Assert.assertSame(util.getChildren("links", "link"), util.getChildren("links", "link"));
+    }
+
+    /**
+     * Returns the utilities class being tested, set up for the tests.
+     * <p>
+     * The configuration contains a list of links, mixed with another child, and a list of items inside a nested node.
+     *
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool() {
+        final ConfigTool          util;       // Utilities class to test
+        final Map<String, Object> map;        // Configuration map
+        final ToolContext         context;    // Velocity context
+        final DecorationModel     deco;       // Decoration model
+        final Xpp3Dom             customNode; // <custom> node
+        final Xpp3Dom             skinNode;   // <skinConfig> node
+        final Xpp3Dom             linksNode;  // <links> node
+        final Xpp3Dom             titleNode;  // <title> node
+        final Xpp3Dom             navNode;    // <nav> node
+        final Xpp3Dom             menuNode;   // <menu> node
+        Xpp3Dom                   linkNode;   // <link> node
+        Xpp3Dom                   itemNode;   // <item> node
+
+        // Creates links node
+        linksNode = new Xpp3Dom("links");
+
+        linkNode = new Xpp3Dom("link");
+        linkNode.setAttribute("href", "./index.html");
+        linkNode.setValue("Home");
+        linksNode.addChild(linkNode);
+
+        titleNode = new Xpp3Dom("title");
+        titleNode.setValue("Links");
+        linksNode.addChild(titleNode);
+
+        linkNode = new Xpp3Dom("link");
+        linkNode.setAttribute("href", "./usage.html");
+        linkNode.setValue("Usage");
+        linksNode.addChild(linkNode);
+
+        // Creates nested menu node
+        menuNode = new Xpp3Dom("menu");
+
+        itemNode = new Xpp3Dom("item");
+        itemNode.setAttribute("href", "./index.html");
+        itemNode.setValue("Index");
+        menuNode.addChild(itemNode);
+
+        itemNode = new Xpp3Dom("item");
+        itemNode.setAttribute("href", "./about.html");
+        itemNode.setValue("About");
+        menuNode.addChild(itemNode);
+
+        navNode = new Xpp3Dom("nav");
+        navNode.addChild(menuNode);
+
+        // Creates skin node
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skinNode.addChild(linksNode);
+        skinNode.addChild(navNode);
+
+        // Creates custom data node
+        customNode = new Xpp3Dom("custom");
+        customNode.addChild(skinNode);
+
+        // Creates decoration model
+        deco = Mockito.mock(DecorationModel.class);
+        Mockito.when(deco.getCustom())
+            .thenReturn(customNode);
+
+        // Creates utilities class
+        util = new ConfigTool();
+
+        // Creates context
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, deco);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page");
+
+        // Prepares configuration
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        return util;
+    }
+
+}
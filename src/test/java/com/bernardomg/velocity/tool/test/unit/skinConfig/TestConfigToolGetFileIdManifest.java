@@ -0,0 +1,236 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.velocity.tools.ToolContext;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+import com.bernardomg.velocity.tool.FileIdManifest;
+
+@DisplayName("Get file ID from a manifest")
+public final class TestConfigToolGetFileIdManifest {
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolGetFileIdManifest() {
+        super();
+    }
+
+    @Test
+    @DisplayName("The file id is taken from the manifest in the context")
+    public final void testGetFileId_ContextManifest() throws IOException {
+        final ConfigTool          util;     // Utilities class to test
+        final Map<String, Object> map;      // Configuration map
+        final ToolContext         context;  // Velocity context
+        final FileIdManifest      manifest; // Precomputed file ids
+
+        manifest = FileIdManifest.read(new StringReader("custom-id\tpage.html\n"));
+
+        util = new ConfigTool();
+
+        context = new ToolContext();
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page.html");
+        context.put(ConfigToolKeys.FILE_ID_MANIFEST, manifest);
+
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        Assert.assertEquals("custom-id", util.getFileId());
+    }
+
+    @Test
+    @DisplayName("The file id is taken from the manifest file set as property")
+    public final void testGetFileId_FileManifest() throws IOException {
+        final ConfigTool          util;    // Utilities class to test
+        final Map<String, Object> map;     // Configuration map
+        final ToolContext         context; // Velocity context
+        final Path                path;    // Manifest file
+
+        path = Files.createTempFile("manifest", ".txt");
+        path.toFile()
+            .deleteOnExit();
+        Files.write(path, "file-custom-id\tpage.html\n".getBytes(StandardCharsets.UTF_8));
+
+        util = new ConfigTool();
+
+        context = new ToolContext();
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page.html");
+
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+        map.put(ConfigToolKeys.FILE_ID_MANIFEST, path.toString());
+
+        util.configure(map);
+
+        Assert.assertEquals("file-custom-id", util.getFileId());
+    }
+
+    @Test
+    @DisplayName("Files missing in the manifest are slugged")
+    public final void testGetFileId_Missing_Slugged() throws IOException {
+        final ConfigTool          util;     // Utilities class to test
+        final Map<String, Object> map;      // Configuration map
+        final ToolContext         context;  // Velocity context
+        final FileIdManifest      manifest; // Precomputed file ids
+
+        manifest = FileIdManifest.read(new StringReader("custom-id\tpage.html\n"));
+
+        util = new ConfigTool();
+
+        context = new ToolContext();
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "path-to\\file_name.html");
+        context.put(ConfigToolKeys.FILE_ID_MANIFEST, manifest);
+
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        Assert.assertEquals("path-to-file-name", util.getFileId());
+    }
+
+    @Test
+    @DisplayName("A manifest file written again is read again")
+    public final void testGetFileId_FileManifest_Rewritten() throws IOException {
+        final Path path; // Manifest file
+
+        path = Files.createTempFile("manifest", ".txt");
+        path.toFile()
+            .deleteOnExit();
+        Files.write(path, "first-id\tpage.html\n".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals("first-id", getConfigTool(path.toString(), null).getFileId());
+
+        Files.write(path, "second-id\tpage.html\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path)
+            .toMillis() + 1000));
+
+        Assert.assertEquals("second-id", getConfigTool(path.toString(), null).getFileId());
+    }
+
+    @Test
+    @DisplayName("A relative manifest path is resolved against the project base directory")
+    public final void testGetFileId_RelativeManifest_ProjectBaseDir() throws IOException {
+        final Path baseDir; // Project base directory
+        final Path path;    // Manifest file
+
+        baseDir = Files.createTempDirectory("project");
+        Files.createDirectories(baseDir.resolve("target"));
+        path = baseDir.resolve("target/file-ids.txt");
+        Files.write(path, "project-id\tpage.html\n".getBytes(StandardCharsets.UTF_8));
+        path.toFile()
+            .deleteOnExit();
+        path.getParent()
+            .toFile()
+            .deleteOnExit();
+        baseDir.toFile()
+            .deleteOnExit();
+
+        Assert.assertEquals("project-id", getConfigTool("target/file-ids.txt", new Project(baseDir.toFile()))
+            .getFileId());
+    }
+
+    /**
+     * Returns the utilities class being tested, set up with a manifest path.
+     *
+     * @param path
+     *            manifest path
+     * @param project
+     *            project to set into the context, may be {@code null}
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final String path, final Project project) {
+        final ConfigTool          util;    // Utilities class to test
+        final Map<String, Object> map;     // Configuration map
+        final ToolContext         context; // Velocity context
+
+        util = new ConfigTool();
+
+        context = new ToolContext();
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page.html");
+        if (project != null) {
+            context.put(ConfigToolKeys.PROJECT, project);
+        }
+
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+        map.put(ConfigToolKeys.FILE_ID_MANIFEST, path);
+
+        util.configure(map);
+
+        return util;
+    }
+
+    /**
+     * Project with a base directory, as the Maven project set into the context.
+     */
+    public static final class Project {
+
+        /**
+         * Project base directory.
+         */
+        private final File basedir;
+
+        /**
+         * Constructs a project with the received base directory.
+         *
+         * @param dir
+         *            project base directory
+         */
+        public Project(final File dir) {
+            super();
+
+            basedir = dir;
+        }
+
+        /**
+         * Returns the project base directory.
+         *
+         * @return the project base directory
+         */
+        public final File getBasedir() {
+            return basedir;
+        }
+
+    }
+
+}
@@ -0,0 +1,228 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+@DisplayName("Getting configuration as JSON")
+public final class TestConfigToolGetJson {
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolGetJson() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A node named json is still acquired through get")
+    public final void testGet_JsonKey_Node() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(getSkin("json", "value"));
+
+        Assert.assertEquals("value", util.get("json")
+            .getValue());
+        Assert.assertEquals("{\"json\":\"value\"}", util.getJson());
+    }
+
+    @Test
+    @DisplayName("Attributes and values are stored in the node object")
+    public final void testGetJson_Attributes() {
+        final ConfigTool util;   // Utilities class to test
+        final Xpp3Dom    skin;   // Skin configuration
+        final Xpp3Dom    node;   // Node with attributes
+
+        node = new Xpp3Dom("link");
+        node.setAttribute("href", "./index.html");
+        node.setValue("Home");
+
+        skin = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skin.addChild(node);
+
+        util = getConfigTool(skin);
+
+        Assert.assertEquals("{\"link\":{\"@href\":\"./index.html\",\"#text\":\"Home\"}}", util.getJson());
+    }
+
+    @Test
+    @DisplayName("An empty configuration gives an empty object")
+    public final void testGetJson_Empty() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(new Xpp3Dom(ConfigToolKeys.SKIN));
+
+        Assert.assertEquals("{}", util.getJson());
+    }
+
+    @Test
+    @DisplayName("Special characters are escaped")
+    public final void testGetJson_Escaped() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(getSkin("key", "\"quoted\"</script>"));
+
+        Assert.assertEquals("{\"key\":\"\\\"quoted\\\"\\u003c/script>\"}", util.getJson());
+    }
+
+    @Test
+    @DisplayName("Returns the JSON for a single node")
+    public final void testGetJson_Node() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(getSkin("key", "value"));
+
+        Assert.assertEquals("\"value\"", util.getJson("key"));
+    }
+
+    @Test
+    @DisplayName("When no data exists for the key a null is returned")
+    public final void testGetJson_NotExisting_ReturnsNull() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(getSkin("key", "value"));
+
+        Assert.assertNull(util.getJson("abc"));
+    }
+
+    @Test
+    @DisplayName("Repeated children are grouped into an array")
+    public final void testGetJson_Repeated() {
+        final ConfigTool util;  // Utilities class to test
+        final Xpp3Dom    skin;  // Skin configuration
+        final Xpp3Dom    menus; // Node with repeated children
+        Xpp3Dom          menu;
+
+        menus = new Xpp3Dom("topNav");
+        menu = new Xpp3Dom("menu");
+        menu.setValue("Documentation");
+        menus.addChild(menu);
+        menu = new Xpp3Dom("menu");
+        menu.setValue("Info");
+        menus.addChild(menu);
+
+        skin = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skin.addChild(menus);
+
+        util = getConfigTool(skin);
+
+        Assert.assertEquals("{\"menu\":[\"Documentation\",\"Info\"]}", util.getJson("topNav"));
+    }
+
+    @Test
+    @DisplayName("The JSON is reused between pages with the same configuration")
+    public final void testGetJson_Reused() {
+        final Xpp3Dom skin; // Skin configuration
+
+        skin = getSkin("key", "value");
+
+        Assert.assertSame(getConfigTool(skin).getJson(), getConfigTool(skin).getJson());
+    }
+
+    @Test
+    @DisplayName("Returns the JSON for the full configuration")
+    public final void testGetJson_Value() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(getSkin("key", "value"));
+
+        Assert.assertEquals("{\"key\":\"value\"}", util.getJson());
+    }
+
+    /**
+     * Returns the utilities class being tested, set up for the tests.
+     *
+     * @param skin
+     *            skin configuration node
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final Xpp3Dom skin) {
+        final ConfigTool          util;       // Utilities class to test
+        final Map<String, Object> map;        // Configuration map
+        final ToolContext         context;    // Velocity context
+        final DecorationModel     deco;       // Decoration model
+        final Xpp3Dom             customNode; // <custom> node
+
+        // Creates custom data node
+        customNode = new Xpp3Dom("custom");
+        customNode.addChild(skin);
+
+        // Creates decoration model
+        deco = Mockito.mock(DecorationModel.class);
+        Mockito.when(deco.getCustom())
+            .thenReturn(customNode);
+
+        // Creates utilities class
+        util = new ConfigTool();
+
+        // Creates context
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, deco);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page");
+
+        // Prepares configuration
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        return util;
+    }
+
+    /**
+     * Returns a skin configuration with a single value.
+     *
+     * @param key
+     *            key for the value set
+     * @param value
+     *            value for the value set
+     * @return the skin configuration
+     */
+    private final Xpp3Dom getSkin(final String key, final String value) {
+        final Xpp3Dom skin;  // Skin configuration
+        final Xpp3Dom node;  // Node with the test value
+
+        node = new Xpp3Dom(key);
+        node.setValue(value);
+
+        skin = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skin.addChild(node);
+
+        return skin;
+    }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+import com.bernardomg.velocity.tool.PageInfo;
+
+@DisplayName("Get page data")
+public final class TestConfigToolGetPage {
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolGetPage() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A node named page is still acquired through get")
+    public final void testGet_PageKey_Node() {
+        final ConfigTool util; // Utilities class to test
+        final Xpp3Dom    skin; // Skin configuration
+        final Xpp3Dom    node; // Node named page
+
+        node = new Xpp3Dom("page");
+        node.setValue("value");
+        skin = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skin.addChild(node);
+
+        util = getConfigTool("a/b.html");
+        util.setSkinConfig(skin);
+
+        Assert.assertEquals("value", util.get("page")
+            .getValue());
+        Assert.assertEquals("a/b.html", util.getPage()
+            .getFileName());
+    }
+
+    @Test
+    @DisplayName("The file id is generated while parsing the page data")
+    public final void testGetFileId_ParsedWithPage() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool("My Guide/Set_up..v2/Install é-Notes.html");
+
+        Assert.assertEquals("my-guide-set-up-v2-install--notes", util.getFileId());
+        Assert.assertEquals("set-up-v2", util.getPage()
+            .getSection());
+    }
+
+    @Test
+    @DisplayName("Backslashes are accepted as separators")
+    public final void testGetPage_Backslashes() {
+        final PageInfo page; // Page data
+
+        page = getConfigTool("guide\\setup\\install.html").getPage();
+
+        Assert.assertEquals(2, page.getDepth());
+        Assert.assertEquals("setup", page.getSection());
+    }
+
+    @Test
+    @DisplayName("The breadcrumbs contain the directories and the page name")
+    public final void testGetPage_Breadcrumbs() {
+        final PageInfo page; // Page data
+
+        page = getConfigTool("guide/setup/install.html").getPage();
+
+        Assert.assertEquals(Arrays.asList("guide", "setup", "install"), page.getBreadcrumbs());
+    }
+
+    @Test
+    @DisplayName("Nested pages have the relative path to the root")
+    public final void testGetPage_Nested() {
+        final PageInfo page; // Page data
+
+        page = getConfigTool("guide/setup/install.html").getPage();
+
+        Assert.assertEquals(2, page.getDepth());
+        Assert.assertEquals("../..", page.getRelativePath());
+        Assert.assertEquals("setup", page.getSection());
+        Assert.assertEquals("guide/setup/install.html", page.getFileName());
+    }
+
+    @Test
+    @DisplayName("Without file name the page is at the root")
+    public final void testGetPage_NoFile() {
+        final PageInfo page; // Page data
+
+        page = getConfigTool(null).getPage();
+
+        Assert.assertEquals(0, page.getDepth());
+        Assert.assertEquals(".", page.getRelativePath());
+        Assert.assertEquals("", page.getSection());
+        Assert.assertEquals(Collections.emptyList(), page.getBreadcrumbs());
+    }
+
+    @Test
+    @DisplayName("Pages at the root have no section")
+    public final void testGetPage_Root() {
+        final PageInfo page; // Page data
+
+        page = getConfigTool("index.html").getPage();
+
+        Assert.assertEquals(0, page.getDepth());
+        Assert.assertEquals(".", page.getRelativePath());
+        Assert.assertEquals("", page.getSection());
+        Assert.assertEquals(Arrays.asList("index"), page.getBreadcrumbs());
+    }
+
+    @Test
+    @DisplayName("The section is slugged")
+    public final void testGetPage_Section_Slugged() {
+        final PageInfo page; // Page data
+
+        page = getConfigTool("./User_Guide//page.html").getPage();
+
+        Assert.assertEquals(1, page.getDepth());
+        Assert.assertEquals("user-guide", page.getSection());
+    }
+
+    @Test
+    @DisplayName("The file id is not changed by the page data")
+    public final void testGetPage_SameFileId() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool("path-to\\file_name.html");
+
+        Assert.assertEquals("path-to-file-name", util.getFileId());
+        Assert.assertEquals("path-to", util.getPage()
+            .getSection());
+    }
+
+    /**
+     * Returns the utilities class being tested, set up for the tests.
+     *
+     * @param fileName
+     *            name of the current file
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final String fileName) {
+        final ConfigTool          util;    // Utilities class to test
+        final Map<String, Object> map;     // Configuration map
+        final ToolContext         context; // Velocity context
+
+        util = new ConfigTool();
+
+        context = new ToolContext();
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, fileName);
+
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        return util;
+    }
+
+}
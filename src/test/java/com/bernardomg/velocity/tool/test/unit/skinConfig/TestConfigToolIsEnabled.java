@@ -0,0 +1,160 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+@DisplayName("Checking configuration flags")
+public final class TestConfigToolIsEnabled {
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolIsEnabled() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A flag with another value is disabled")
+    public final void testIsEnabled_Other() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool("flag", "yes");
+
+        Assert.assertFalse(util.isEnabled("flag"));
+    }
+
+    @Test
+    @DisplayName("A flag with the true value is enabled")
+    public final void testIsEnabled_True() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool("flag", "true");
+
+        Assert.assertTrue(util.isEnabled("flag"));
+    }
+
+    @Test
+    @DisplayName("The true value is checked ignoring case")
+    public final void testIsEnabled_True_IgnoresCase() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool("flag", " TRUE ");
+
+        Assert.assertTrue(util.isEnabled("flag"));
+    }
+
+    @Test
+    @DisplayName("A missing flag is disabled")
+    public final void testIsEnabled_Missing() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool("flag", "true");
+
+        Assert.assertFalse(util.isEnabled("other"));
+    }
+
+    @Test
+    @DisplayName("The decision follows the configuration changes")
+    public final void testIsEnabled_SetSkinConfig() {
+        final ConfigTool util;     // Utilities class to test
+        final Xpp3Dom    skinNode; // <skinConfig> node
+        final Xpp3Dom    flagNode; // Node with the flag
+
+        util = getConfigTool("flag", "true");
+        util.isEnabled("flag");
+
+        flagNode = new Xpp3Dom("flag");
+        flagNode.setValue("false");
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skinNode.addChild(flagNode);
+        util.setSkinConfig(skinNode);
+
+        Assert.assertFalse(util.isEnabled("flag"));
+    }
+
+    /**
+     * Returns the utilities class to test, with a configuration containing the received flag.
+     *
+     * @param name
+     *            flag name
+     * @param value
+     *            flag value
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final String name, final String value) {
+        final ConfigTool          util;       // Utilities class to test
+        final Map<String, Object> map;        // Configuration map
+        final ToolContext         context;    // Velocity context
+        final DecorationModel     deco;       // Decoration model
+        final Xpp3Dom             customNode; // <custom> node
+        final Xpp3Dom             skinNode;   // <skinConfig> node
+        final Xpp3Dom             flagNode;   // Node with the flag
+
+        // Creates skin node
+        flagNode = new Xpp3Dom(name);
+        flagNode.setValue(value);
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skinNode.addChild(flagNode);
+
+        // Creates custom data node
+        customNode = new Xpp3Dom("custom");
+        customNode.addChild(skinNode);
+
+        // Creates decoration model
+        deco = Mockito.mock(DecorationModel.class);
+        Mockito.when(deco.getCustom())
+            .thenReturn(customNode);
+
+        // Creates utilities class
+        util = new ConfigTool();
+
+        // Creates context
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, deco);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page");
+
+        // Prepares configuration
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        return util;
+    }
+
+}
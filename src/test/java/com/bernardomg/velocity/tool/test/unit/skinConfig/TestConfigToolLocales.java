@@ -0,0 +1,214 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+@DisplayName("Getting configuration for multiple locales")
+public final class TestConfigToolLocales {
+
+    /**
+     * Locales supported by the site, the first one is the default.
+     */
+    private static final List<Locale> SUPPORTED = Arrays.asList(Locale.ENGLISH, new Locale("fr"), new Locale("es"));
+
+    /**
+     * Keywords shared by most locales.
+     */
+    private static final String       KEYWORDS  = "Velocity tool, configuration";
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolLocales() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Changed nodes are returned for each locale")
+    public final void testGet_Changed_LocaleValue() {
+        final ConfigTool english; // Tool for the default locale
+        final ConfigTool spanish; // Tool for another locale
+
+        english = getConfigTool(getSkin("Title", KEYWORDS), Locale.ENGLISH);
+        spanish = getConfigTool(getSkin("Título", KEYWORDS), new Locale("es"));
+
+        Assert.assertEquals("Title", english.get("title")
+            .getValue());
+        Assert.assertEquals("Título", spanish.get("title")
+            .getValue());
+    }
+
+    @Test
+    @DisplayName("Unchanged nodes keep their values for each locale")
+    public final void testGet_Unchanged_SameValue() {
+        final ConfigTool english; // Tool for the default locale
+        final ConfigTool spanish; // Tool for another locale
+
+        english = getConfigTool(getSkin("Title", KEYWORDS), Locale.ENGLISH);
+        spanish = getConfigTool(getSkin("Título", KEYWORDS), new Locale("es"));
+
+        Assert.assertSame(english.get("keywords"), spanish.get("keywords"));
+    }
+
+    @Test
+    @DisplayName("Unchanged nodes are shared with the default locale, even if another locale was built after it")
+    public final void testGet_Unchanged_SharedWithDefault() {
+        final ConfigTool english; // Tool for the default locale
+        final ConfigTool french;  // Tool for a locale with other keywords
+        final ConfigTool spanish; // Tool for a locale with the default keywords
+
+        english = getConfigTool(getSkin("Title", KEYWORDS), Locale.ENGLISH);
+        french = getConfigTool(getSkin("Titre", "Outil Velocity"), new Locale("fr"));
+        spanish = getConfigTool(getSkin("Título", KEYWORDS), new Locale("es"));
+
+        Assert.assertEquals("Outil Velocity", french.get("keywords")
+            .getValue());
+        Assert.assertSame(english.get("keywords"), spanish.get("keywords"));
+    }
+
+    @Test
+    @DisplayName("Changed nodes have their own JSON for each locale")
+    public final void testGetJson_Changed_LocaleJson() {
+        final ConfigTool english; // Tool for the default locale
+        final ConfigTool spanish; // Tool for another locale
+
+        english = getConfigTool(getSkin("Title", KEYWORDS), Locale.ENGLISH);
+        spanish = getConfigTool(getSkin("Título", KEYWORDS), new Locale("es"));
+
+        Assert.assertEquals("\"Title\"", english.getJson("title"));
+        Assert.assertEquals("\"Título\"", spanish.getJson("title"));
+    }
+
+    @Test
+    @DisplayName("Unchanged nodes share the JSON between locales")
+    public final void testGetJson_Unchanged_Shared() {
+        final ConfigTool english; // Tool for the default locale
+        final ConfigTool spanish; // Tool for another locale
+
+        english = getConfigTool(getSkin("Title", KEYWORDS), Locale.ENGLISH);
+        spanish = getConfigTool(getSkin("Título", KEYWORDS), new Locale("es"));
+
+        Assert.assertSame(english.getJson("keywords"), spanish.getJson("keywords"));
+    }
+
+    @Test
+    @DisplayName("The full JSON is built from the nodes of each locale")
+    public final void testGetJson_Full_LocaleJson() {
+        final ConfigTool spanish; // Tool for another locale
+
+        getConfigTool(getSkin("Title", KEYWORDS), Locale.ENGLISH).getJson();
+        spanish = getConfigTool(getSkin("Título", KEYWORDS), new Locale("es"));
+
+        Assert.assertEquals("{\"title\":\"Título\",\"keywords\":\"Velocity tool, configuration\"}", spanish.getJson());
+    }
+
+    /**
+     * Returns the utilities class being tested, set up for the tests.
+     *
+     * @param skin
+     *            skin configuration node
+     * @param locale
+     *            locale for the page
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final Xpp3Dom skin, final Locale locale) {
+        final ConfigTool          util;       // Utilities class to test
+        final Map<String, Object> map;        // Configuration map
+        final ToolContext         context;    // Velocity context
+        final DecorationModel     deco;       // Decoration model
+        final Xpp3Dom             customNode; // <custom> node
+
+        // Creates custom data node
+        customNode = new Xpp3Dom("custom");
+        customNode.addChild(skin);
+
+        // Creates decoration model
+        deco = Mockito.mock(DecorationModel.class);
+        Mockito.when(deco.getCustom())
+            .thenReturn(customNode);
+
+        // Creates utilities class
+        util = new ConfigTool();
+
+        // Creates context
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, deco);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page");
+        context.put(ConfigToolKeys.LOCALE, locale);
+        context.put(ConfigToolKeys.SUPPORTED_LOCALES, SUPPORTED);
+
+        // Prepares configuration
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        return util;
+    }
+
+    /**
+     * Returns a skin configuration with a localized title and a keywords node.
+     *
+     * @param title
+     *            localized title
+     * @param words
+     *            keywords
+     * @return the skin configuration
+     */
+    private final Xpp3Dom getSkin(final String title, final String words) {
+        final Xpp3Dom skin;     // Skin configuration
+        final Xpp3Dom titleNode;
+        final Xpp3Dom keywords;
+
+        titleNode = new Xpp3Dom("title");
+        titleNode.setValue(title);
+
+        keywords = new Xpp3Dom("keywords");
+        keywords.setValue(words);
+
+        skin = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skin.addChild(titleNode);
+        skin.addChild(keywords);
+
+        return skin;
+    }
+
+}
@@ -0,0 +1,245 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+@DisplayName("Rendering fragments")
+public final class TestConfigToolRender {
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolRender() {
+        super();
+    }
+
+    @Test
+    @DisplayName("A different configuration renders the fragment again")
+    public final void testRender_DifferentConfig_Rendered() {
+        final CountingFragment fragment; // Fragment to render
+
+        fragment = new CountingFragment();
+
+        getConfigTool(getSkin("value1"), "page").render("different", fragment);
+        getConfigTool(getSkin("value2"), "page").render("different", fragment);
+
+        Assert.assertEquals(2, fragment.getCount());
+    }
+
+    @Test
+    @DisplayName("A different skin renders the fragment again")
+    public final void testRender_DifferentSkin_Rendered() throws Exception {
+        final CountingFragment fragment; // Fragment to render
+        final Thread           thread;   // Current thread
+        final ClassLoader      original; // Original context class loader
+
+        fragment = new CountingFragment();
+
+        getConfigTool(getSkin("value"), "page").render("skin", fragment);
+
+        thread = Thread.currentThread();
+        original = thread.getContextClassLoader();
+        try (final URLClassLoader skinLoader = new URLClassLoader(new URL[0], original)) {
+            // Maven Site sets the skin class loader as context class loader
+            thread.setContextClassLoader(skinLoader);
+            getConfigTool(getSkin("value"), "page").render("skin", fragment);
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+
+        Assert.assertEquals(2, fragment.getCount());
+    }
+
+    @Test
+    @DisplayName("A null fragment gives a null")
+    public final void testRender_Null_ReturnsNull() {
+        Assert.assertNull(getConfigTool(getSkin("value"), "page").render("null", null));
+    }
+
+    @Test
+    @DisplayName("Returns the rendered fragment")
+    public final void testRender_Output() {
+        Assert.assertEquals("rendered",
+            getConfigTool(getSkin("value"), "page").render("output", new CountingFragment()));
+    }
+
+    @Test
+    @DisplayName("Pages sharing an equal configuration render the fragment once")
+    public final void testRender_SameConfig_RenderedOnce() {
+        final CountingFragment fragment; // Fragment to render
+
+        fragment = new CountingFragment();
+
+        getConfigTool(getSkin("value"), "page1").render("same", fragment);
+        getConfigTool(getSkin("value"), "page2").render("same", fragment);
+
+        Assert.assertEquals(1, fragment.getCount());
+    }
+
+    @Test
+    @DisplayName("Page fragments are rendered for each page")
+    public final void testRenderPage_DifferentPage_Rendered() {
+        final CountingFragment fragment; // Fragment to render
+        final Xpp3Dom          skin;     // Skin configuration
+
+        fragment = new CountingFragment();
+        skin = getSkin("value");
+
+        getConfigTool(skin, "page1").renderPage("page", fragment);
+        getConfigTool(skin, "page2").renderPage("page", fragment);
+        getConfigTool(skin, "page1").renderPage("page", fragment);
+
+        Assert.assertEquals(2, fragment.getCount());
+    }
+
+    @Test
+    @DisplayName("Page fragments are rendered for each file, even if they have the same file id")
+    public final void testRenderPage_SameFileId_Rendered() {
+        final CountingFragment fragment; // Fragment to render
+        final Xpp3Dom          skin;     // Skin configuration
+
+        fragment = new CountingFragment();
+        skin = getSkin("value");
+
+        getConfigTool(skin, "a_b.html").renderPage("slug", fragment);
+        getConfigTool(skin, "a-b.html").renderPage("slug", fragment);
+        getConfigTool(skin, "a.b.html").renderPage("slug", fragment);
+        getConfigTool(skin, "a/b.html").renderPage("slug", fragment);
+
+        Assert.assertEquals(4, fragment.getCount());
+    }
+
+    /**
+     * Returns the utilities class being tested, set up for the tests.
+     *
+     * @param skin
+     *            skin configuration node
+     * @param currentFile
+     *            current page
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final Xpp3Dom skin, final String currentFile) {
+        final ConfigTool          util;       // Utilities class to test
+        final Map<String, Object> map;        // Configuration map
+        final ToolContext         context;    // Velocity context
+        final DecorationModel     deco;       // Decoration model
+        final Xpp3Dom             customNode; // <custom> node
+
+        // Creates custom data node
+        customNode = new Xpp3Dom("custom");
+        customNode.addChild(skin);
+
+        // Creates decoration model
+        deco = Mockito.mock(DecorationModel.class);
+        Mockito.when(deco.getCustom())
+            .thenReturn(customNode);
+
+        // Creates utilities class
+        util = new ConfigTool();
+
+        // Creates context
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, deco);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, currentFile);
+
+        // Prepares configuration
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+
+        util.configure(map);
+
+        return util;
+    }
+
+    /**
+     * Returns a skin configuration with a single value.
+     *
+     * @param value
+     *            value for the value set
+     * @return the skin configuration
+     */
+    private final Xpp3Dom getSkin(final String value) {
+        final Xpp3Dom skin; // Skin configuration
+        final Xpp3Dom node; // Node with the test value
+
+        node = new Xpp3Dom("key");
+        node.setValue(value);
+
+        skin = new Xpp3Dom(ConfigToolKeys.SKIN);
+        skin.addChild(node);
+
+        return skin;
+    }
+
+    /**
+     * Fragment which counts the times it has been rendered.
+     */
+    private static final class CountingFragment {
+
+        /**
+         * Number of times rendered.
+         */
+        private int count = 0;
+
+        /**
+         * Default constructor.
+         */
+        public CountingFragment() {
+            super();
+        }
+
+        /**
+         * Returns the number of times rendered.
+         *
+         * @return the number of times rendered
+         */
+        public final int getCount() {
+            return count;
+        }
+
+        @Override
+        public final String toString() {
+            count++;
+            return "rendered";
+        }
+
+    }
+
+}
@@ -0,0 +1,267 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2017-2021 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.velocity.tool.test.unit.skinConfig;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.velocity.tools.ToolContext;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.bernardomg.velocity.tool.ConfigTool;
+import com.bernardomg.velocity.tool.ConfigToolKeys;
+
+@DisplayName("Getting configuration validated by a schema")
+public final class TestConfigToolSchema {
+
+    /**
+     * Schema used for the tests.
+     */
+    private static final String SCHEMA = "schema/skin-config-schema.xml";
+
+    /**
+     * Default constructor.
+     */
+    public TestConfigToolSchema() {
+        super();
+    }
+
+    @Test
+    @DisplayName("Boolean values are coerced")
+    public final void testGet_Boolean_Coerced() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(SCHEMA, "title", "Title", "enableSearch", " Yes ");
+
+        Assert.assertEquals("true", util.get("enableSearch")
+            .getValue());
+        Assert.assertEquals(Boolean.TRUE, util.getValue("enableSearch"));
+    }
+
+    @Test
+    @DisplayName("Missing keys receive the default value")
+    public final void testGet_Default() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(SCHEMA, "title", "Title");
+
+        Assert.assertEquals("light", util.get("theme")
+            .getValue());
+        Assert.assertEquals(Boolean.FALSE, util.getValue("enableSearch"));
+    }
+
+    @Test
+    @DisplayName("Each skin receives its own default schema")
+    public final void testGet_DifferentSkins_OwnSchema() throws IOException {
+        final Thread      thread;   // Current thread
+        final ClassLoader original; // Original context class loader
+
+        thread = Thread.currentThread();
+        original = thread.getContextClassLoader();
+        try (final URLClassLoader light = getSkinLoader("light");
+                final URLClassLoader dark = getSkinLoader("dark")) {
+            // Maven Site sets the skin class loader as context class loader
+            thread.setContextClassLoader(light);
+            Assert.assertEquals("light", getConfigTool(null, "title", "Title").getValue("theme"));
+
+            thread.setContextClassLoader(dark);
+            Assert.assertEquals("dark", getConfigTool(null, "title", "Title").getValue("theme"));
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    @DisplayName("Empty keys receive the default value")
+    public final void testGet_Empty_Default() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(SCHEMA, "title", "Title", "theme", " ");
+
+        Assert.assertEquals("light", util.getValue("theme"));
+    }
+
+    @Test
+    @DisplayName("Integer values are coerced")
+    public final void testGet_Integer_Coerced() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(SCHEMA, "title", "Title", "maxItems", "010");
+
+        Assert.assertEquals(Integer.valueOf(10), util.getValue("maxItems"));
+    }
+
+    @Test
+    @DisplayName("All the errors are reported together")
+    public final void testGet_Invalid_AllErrors() {
+        final IllegalArgumentException exception;
+
+        exception = Assertions.assertThrows(IllegalArgumentException.class,
+            () -> getConfigTool(SCHEMA, "enableSearch", "maybe", "theme", "blue", "maxItems", "many"));
+
+        Assert.assertTrue(exception.getMessage(), exception.getMessage()
+            .contains("key 'title' is required"));
+        Assert.assertTrue(exception.getMessage(), exception.getMessage()
+            .contains("key 'enableSearch' should be a boolean, but it is 'maybe'"));
+        Assert.assertTrue(exception.getMessage(), exception.getMessage()
+            .contains("key 'theme' should be one of [light, dark], but it is 'blue'"));
+        Assert.assertTrue(exception.getMessage(), exception.getMessage()
+            .contains("key 'maxItems' should be an integer, but it is 'many'"));
+    }
+
+    @Test
+    @DisplayName("A missing schema set as property is rejected")
+    public final void testGet_MissingSchema() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> getConfigTool("schema/not-existing.xml", "title", "Title"));
+    }
+
+    @Test
+    @DisplayName("Keys outside the schema are kept as they are")
+    public final void testGet_NotInSchema_Unchanged() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(SCHEMA, "title", "Title", "other", " yes ");
+
+        Assert.assertEquals(" yes ", util.getValue("other"));
+    }
+
+    @Test
+    @DisplayName("Without schema the values are kept as they are")
+    public final void testGet_NoSchema_Unchanged() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(null, "enableSearch", "yes");
+
+        Assert.assertEquals("yes", util.getValue("enableSearch"));
+        Assert.assertNull(util.get("theme"));
+    }
+
+    @Test
+    @DisplayName("The received configuration is not modified")
+    public final void testGet_Original_Unchanged() {
+        final ConfigTool util; // Utilities class to test
+
+        util = getConfigTool(SCHEMA, "title", "Title", "enableSearch", "yes");
+
+        Assert.assertEquals("yes", util.getSkinConfig()
+            .getChild("enableSearch")
+            .getValue());
+        Assert.assertNull(util.getSkinConfig()
+            .getChild("theme"));
+    }
+
+    /**
+     * Returns the utilities class being tested, set up for the tests.
+     *
+     * @param schema
+     *            path to the schema, or {@code null} for the default one
+     * @param values
+     *            keys and values for the skin configuration
+     * @return the utilities class to test
+     */
+    private final ConfigTool getConfigTool(final String schema, final String... values) {
+        final ConfigTool          util;       // Utilities class to test
+        final Map<String, Object> map;        // Configuration map
+        final ToolContext         context;    // Velocity context
+        final DecorationModel     deco;       // Decoration model
+        final Xpp3Dom             customNode; // <custom> node
+        final Xpp3Dom             skinNode;   // <skinConfig> node
+        Xpp3Dom                   valueNode;  // Node with a test value
+
+        // Creates skin node
+        skinNode = new Xpp3Dom(ConfigToolKeys.SKIN);
+        for (int i = 0; i < values.length; i += 2) {
+            valueNode = new Xpp3Dom(values[i]);
+            valueNode.setValue(values[i + 1]);
+            skinNode.addChild(valueNode);
+        }
+
+        // Creates custom data node
+        customNode = new Xpp3Dom("custom");
+        customNode.addChild(skinNode);
+
+        // Creates decoration model
+        deco = Mockito.mock(DecorationModel.class);
+        Mockito.when(deco.getCustom())
+            .thenReturn(customNode);
+
+        // Creates utilities class
+        util = new ConfigTool();
+
+        // Creates context
+        context = new ToolContext();
+        context.put(ConfigToolKeys.DECORATION, deco);
+        context.put(ConfigToolKeys.CURRENT_FILE_NAME, "page");
+
+        // Prepares configuration
+        map = new HashMap<>();
+        map.put(ConfigToolKeys.VELOCITY_CONTEXT, context);
+        if (schema != null) {
+            map.put(ConfigToolKeys.SCHEMA, schema);
+        }
+
+        util.configure(map);
+
+        return util;
+    }
+
+    /**
+     * Returns a class loader for a skin containing the default schema, with the received default theme.
+     *
+     * @param theme
+     *            default theme in the schema
+     * @return the class loader for the skin
+     * @throws IOException
+     *             if the schema can't be written
+     */
+    private final URLClassLoader getSkinLoader(final String theme) throws IOException {
+        final Path root;   // Skin root folder
+        final Path schema; // Schema file
+
+        root = Files.createTempDirectory("skin");
+        schema = root.resolve(ConfigToolKeys.DEFAULT_SCHEMA);
+        Files.createDirectories(schema.getParent());
+        Files.write(schema, ("<schema><key name=\"theme\" default=\"" + theme + "\" /></schema>")
+            .getBytes(StandardCharsets.UTF_8));
+
+        return new URLClassLoader(new URL[] { root.toUri()
+            .toURL() }, Thread.currentThread()
+                .getContextClassLoader());
+    }
+
+}